@@ -0,0 +1,64 @@
+package org.tarantool.netty;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.tarantool.SocketChannelProvider;
+import org.tarantool.TarantoolClient;
+import org.tarantool.TarantoolClientConfig;
+import org.tarantool.TarantoolClientImpl;
+
+/**
+ * Compares the blocking socket client with the Netty one on the same asynchronous workload:
+ * windows of trivial evals sent back to back, then waited for. Epoll is used when its native library loads.
+ * Arguments: host, port, number of requests and the window size.
+ */
+public class TestNettyTransport {
+    public static void main(String[] args) throws Exception {
+        final InetSocketAddress address = new InetSocketAddress(args.length > 0 ? args[0] : "localhost",
+                args.length > 1 ? Integer.parseInt(args[1]) : 3301);
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 1000000;
+        int window = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        TarantoolClientConfig config = new TarantoolClientConfig();
+        config.initTimeoutMillis = 5000;
+
+        TarantoolClient socketClient = new TarantoolClientImpl(new SocketChannelProvider() {
+            @Override
+            public SocketChannel get(int retryNumber, Throwable lastError) {
+                try {
+                    return SocketChannel.open(address);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }, config);
+        TarantoolClient nettyClient = new TarantoolNettyClient(address, config);
+        System.out.println("epoll: " + Transports.isEpollAvailable());
+        for (int round = 0; round < 5; round++) {
+            measure("socket", socketClient, iterations, window);
+            measure("netty", nettyClient, iterations, window);
+        }
+        socketClient.close();
+        nettyClient.close();
+    }
+
+    static void measure(String name, TarantoolClient client, int iterations, int window) throws Exception {
+        List<Future<List<?>>> futures = new ArrayList<Future<List<?>>>(window);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i += window) {
+            for (int j = 0; j < window; j++) {
+                futures.add(client.asyncOps().eval("return 1"));
+            }
+            for (Future<List<?>> future : futures) {
+                future.get();
+            }
+            futures.clear();
+        }
+        long time = System.nanoTime() - start;
+        System.out.println(name + ": " + iterations * 1000000000L / time + " requests/s");
+    }
+}
@@ -0,0 +1,441 @@
+package org.tarantool.netty;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import org.tarantool.AbstractTarantoolOps;
+import org.tarantool.Code;
+import org.tarantool.CommunicationException;
+import org.tarantool.DataDecoder;
+import org.tarantool.FramePool;
+import org.tarantool.FutureImpl;
+import org.tarantool.FutureTable;
+import org.tarantool.Key;
+import org.tarantool.TarantoolBase;
+import org.tarantool.TarantoolClient;
+import org.tarantool.TarantoolClientConfig;
+import org.tarantool.TarantoolClientOps;
+import org.tarantool.TarantoolException;
+import org.tarantool.TarantoolSQLOps;
+
+/**
+ * {@link TarantoolClient} on a Netty transport, native epoll where it is available.
+ *
+ * Packets are cut by a length field frame decoder and decoded straight from pooled buffers,
+ * requests are encoded into pooled direct buffers and flushes of concurrent requests are consolidated,
+ * so the transport writes them with one gathering write. Many clients may share one event loop group.
+ * The connection is re-established after a delay whenever it is lost, failing the requests in flight.
+ */
+public class TarantoolNettyClient extends TarantoolBase<Future<?>> implements TarantoolClient {
+    public static final CommunicationException NOT_INIT_EXCEPTION = new CommunicationException("Not connected, initializing connection");
+    protected static final int GREETING_SIZE = 128;
+    protected static final int MAX_FLUSHES_BEFORE_FLUSH = 256;
+
+    protected final TarantoolClientConfig config;
+    protected final SocketAddress address;
+    protected final EventLoopGroup group;
+    protected final boolean ownGroup;
+    protected final Bootstrap bootstrap;
+    protected final FutureTable futures;
+    protected long reconnectDelayMillis = 1000;
+
+    protected volatile Channel channel;
+    protected volatile Exception thumbstone = NOT_INIT_EXCEPTION;
+    protected volatile boolean closed;
+    protected final AtomicReference<CountDownLatch> nextAliveLatch =
+            new AtomicReference<CountDownLatch>(new CountDownLatch(1));
+    /**
+     * Whether the next packet is the response to the auth request, event loop only
+     */
+    protected boolean authenticating;
+
+    protected SyncOps syncOps;
+    protected FireAndForgetOps fireAndForgetOps;
+
+    public TarantoolNettyClient(SocketAddress address, TarantoolClientConfig config) {
+        this(address, config, null);
+    }
+
+    /**
+     * @param group event loop group shared with other clients, see {@link Transports#newEventLoopGroup(int)},
+     *              or {@code null} for a group of one thread owned by the client
+     */
+    public TarantoolNettyClient(SocketAddress address, TarantoolClientConfig config, EventLoopGroup group) {
+        this.config = config;
+        this.address = address;
+        this.initialRequestSize = config.defaultRequestSize;
+        this.lazyTuples = config.lazyTuples;
+        this.binaryViews = config.binaryViews;
+        if (config.framePoolSize > 0) {
+            this.framePool = new FramePool(config.framePoolSize, config.framePoolMaxFrameSize);
+        }
+        this.futures = new FutureTable(config.predictedFutures);
+        this.ownGroup = group == null;
+        this.group = group == null ? Transports.newEventLoopGroup(1) : group;
+        this.bootstrap = new Bootstrap()
+                .group(this.group)
+                .channel(Transports.channelClass(this.group))
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline().addLast(
+                                new FlushConsolidationHandler(MAX_FLUSHES_BEFORE_FLUSH, true),
+                                new GreetingDecoder(),
+                                // 0xce followed by the size as a big-endian uint32
+                                new LengthFieldBasedFrameDecoder(Integer.MAX_VALUE, 1, 4, 0, 5),
+                                new ResponseHandler());
+                    }
+                });
+        this.syncOps = new SyncOps();
+        this.fireAndForgetOps = new FireAndForgetOps();
+        if (config.useNewCall) {
+            setCallCode(Code.CALL);
+            this.syncOps.setCallCode(Code.CALL);
+            this.fireAndForgetOps.setCallCode(Code.CALL);
+        }
+        connect();
+        try {
+            if (!waitAlive(config.initTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                CommunicationException e = new CommunicationException(config.initTimeoutMillis +
+                        "ms is exceeded when waiting for client initialization. " +
+                        "You could configure init timeout in TarantoolConfig", thumbstone);
+                close();
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            close();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    protected void connect() {
+        bootstrap.connect(address).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                if (!future.isSuccess()) {
+                    scheduleReconnect(future.cause());
+                }
+            }
+        });
+    }
+
+    protected void scheduleReconnect(Throwable cause) {
+        if (closed) {
+            return;
+        }
+        thumbstone = cause instanceof Exception ? (Exception) cause : new CommunicationException("Connection is lost", cause);
+        group.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (!closed) {
+                    connect();
+                }
+            }
+        }, reconnectDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    protected void onAlive(Channel ch) {
+        if (closed) {
+            ch.close();
+            return;
+        }
+        channel = ch;
+        thumbstone = null;
+        nextAliveLatch.getAndSet(new CountDownLatch(1)).countDown();
+    }
+
+    /**
+     * Fails the requests in flight, registering new ones fails as well until the connection is alive again.
+     */
+    protected void die(Exception cause) {
+        thumbstone = cause;
+        channel = null;
+        for (FutureImpl<?> future : futures.removeAll()) {
+            future.setError(cause);
+        }
+    }
+
+    @Override
+    protected Future<?> exec(Code code, Object... args) {
+        validateArgs(args);
+        FutureImpl<?> q = new FutureImpl(syncId.incrementAndGet(), code);
+        Channel ch = channel;
+        if (ch == null || thumbstone != null) {
+            q.setError(new CommunicationException("Connection is dead", thumbstone));
+            return q;
+        }
+        ByteBuf packet = encode(ch, code, q.getId(), args);
+        futures.put(q);
+        if (thumbstone != null) {
+            packet.release();
+            if (futures.remove(q)) {
+                q.setError(new CommunicationException("Connection is dead", thumbstone));
+            }
+            return q;
+        }
+        // a failed write closes the channel, which fails the request
+        ch.writeAndFlush(packet, ch.voidPromise());
+        return q;
+    }
+
+    /**
+     * Encodes the request into a pooled request buffer and copies it into a pooled direct buffer.
+     */
+    protected ByteBuf encode(Channel ch, Code code, long sync, Object[] args) {
+        ByteBuffer buffer = createPacket(acquireRequestBuffer(), code, sync, null, args);
+        try {
+            ByteBuf packet = ch.alloc().ioBuffer(buffer.remaining());
+            packet.writeBytes(buffer);
+            return packet;
+        } finally {
+            releaseRequestBuffer(buffer);
+        }
+    }
+
+    /**
+     * Completes the future of the response. Event loop only.
+     */
+    protected void handleFrame(ByteBuffer frame) {
+        readHeader(frame);
+        FutureImpl<?> future = futures.remove(responseSync);
+        if (future == null) {
+            return;
+        }
+        DataDecoder<?> decoder = future.getDataDecoder();
+        if (keepsFrame(decoder)) {
+            // decoded data referring to the frame has to outlive the pooled buffer
+            ByteBuffer copy = copyFrame(frame);
+            readBody(copy, decoder);
+            if (body[Key.DATA.getId()] == null) {
+                releaseFrame(copy);
+            }
+        } else {
+            readBody(frame, decoder);
+        }
+        complete(responseCode, future);
+    }
+
+    protected void complete(long code, FutureImpl<?> q) {
+        if (code == 0) {
+            Object data = body[Key.DATA.getId()];
+            if (q.getCode() == Code.EXECUTE && q.getDataDecoder() == null) {
+                Long rowCount = getSqlRowCount();
+                ((FutureImpl) q).setValue(rowCount != null ? rowCount : readSqlResult((List<List<?>>) data));
+            } else {
+                ((FutureImpl) q).setValue(data);
+            }
+        } else {
+            q.setError(serverError(code, body[Key.ERROR.getId()]));
+        }
+    }
+
+    protected <T> T syncGet(Future<T> r) {
+        try {
+            return r.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CommunicationException) {
+                throw (CommunicationException) e.getCause();
+            } else if (e.getCause() instanceof TarantoolException) {
+                throw (TarantoolException) e.getCause();
+            } else {
+                throw new IllegalStateException(e.getCause());
+            }
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Channel ch = channel;
+        die(new CommunicationException("Connection is closed."));
+        if (ch != null) {
+            ch.close().awaitUninterruptibly();
+        }
+        if (ownGroup) {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public boolean isAlive() {
+        return !closed && channel != null && thumbstone == null;
+    }
+
+    @Override
+    public void waitAlive() throws InterruptedException {
+        CountDownLatch latch = nextAliveLatch.get();
+        if (!isAlive()) {
+            latch.await();
+        }
+    }
+
+    @Override
+    public boolean waitAlive(long timeout, TimeUnit unit) throws InterruptedException {
+        CountDownLatch latch = nextAliveLatch.get();
+        return isAlive() || latch.await(timeout, unit);
+    }
+
+    @Override
+    public TarantoolClientOps<Integer, List<?>, Object, List<?>> syncOps() {
+        return syncOps;
+    }
+
+    @Override
+    public TarantoolClientOps<Integer, List<?>, Object, Future<List<?>>> asyncOps() {
+        return (TarantoolClientOps) this;
+    }
+
+    @Override
+    public TarantoolClientOps<Integer, List<?>, Object, Long> fireAndForgetOps() {
+        return fireAndForgetOps;
+    }
+
+    @Override
+    public TarantoolSQLOps<Object, Long, List<Map<String, Object>>> sqlSyncOps() {
+        return new TarantoolSQLOps<Object, Long, List<Map<String, Object>>>() {
+            @Override
+            public Long update(String sql, Object... bind) {
+                return (Long) syncGet(exec(Code.EXECUTE, Key.SQL_TEXT, sql, Key.SQL_BIND, bind));
+            }
+
+            @Override
+            public List<Map<String, Object>> query(String sql, Object... bind) {
+                return (List<Map<String, Object>>) syncGet(exec(Code.EXECUTE, Key.SQL_TEXT, sql, Key.SQL_BIND, bind));
+            }
+        };
+    }
+
+    @Override
+    public TarantoolSQLOps<Object, Future<Long>, Future<List<Map<String, Object>>>> sqlAsyncOps() {
+        return new TarantoolSQLOps<Object, Future<Long>, Future<List<Map<String, Object>>>>() {
+            @Override
+            public Future<Long> update(String sql, Object... bind) {
+                return (Future<Long>) exec(Code.EXECUTE, Key.SQL_TEXT, sql, Key.SQL_BIND, bind);
+            }
+
+            @Override
+            public Future<List<Map<String, Object>>> query(String sql, Object... bind) {
+                return (Future<List<Map<String, Object>>>) exec(Code.EXECUTE, Key.SQL_TEXT, sql, Key.SQL_BIND, bind);
+            }
+        };
+    }
+
+    /**
+     * Reads the greeting, sends the auth request if there are credentials and leaves the rest to the frame decoder.
+     */
+    protected class GreetingDecoder extends ByteToMessageDecoder {
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws IOException {
+            if (in.readableBytes() < GREETING_SIZE) {
+                return;
+            }
+            byte[] greeting = new byte[GREETING_SIZE];
+            in.readBytes(greeting);
+            String firstLine = new String(greeting, 0, 64);
+            if (!firstLine.startsWith(WELCOME)) {
+                throw new CommunicationException("Welcome message should starts with tarantool " +
+                        "but starts with '" + firstLine + "'", new IllegalStateException("Invalid welcome packet"));
+            }
+            serverVersion = firstLine.substring(WELCOME.length());
+            salt = new String(greeting, 64, 64);
+            ctx.pipeline().remove(this);
+            if (config.username != null && config.password != null) {
+                authenticating = true;
+                ctx.channel().writeAndFlush(Unpooled.wrappedBuffer(createAuthPacket(config.username, config.password)));
+            } else {
+                onAlive(ctx.channel());
+            }
+        }
+    }
+
+    protected class ResponseHandler extends SimpleChannelInboundHandler<ByteBuf> {
+        protected Throwable lastError;
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) {
+            ByteBuffer buffer = frame.nioBuffer();
+            if (authenticating) {
+                authenticating = false;
+                readPacket(buffer);
+                if (responseCode != 0) {
+                    lastError = serverError(responseCode, body[Key.ERROR.getId()]);
+                    ctx.close();
+                } else {
+                    onAlive(ctx.channel());
+                }
+                return;
+            }
+            handleFrame(buffer);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            CommunicationException err = new CommunicationException("Connection is lost", lastError);
+            die(err);
+            scheduleReconnect(err);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            lastError = cause;
+            ctx.close();
+        }
+    }
+
+    protected class SyncOps extends AbstractTarantoolOps<Integer, List<?>, Object, List<?>> {
+        @Override
+        public List exec(Code code, Object... args) {
+            return (List) syncGet(TarantoolNettyClient.this.exec(code, args));
+        }
+
+        @Override
+        public void close() {
+            throw new IllegalStateException("You should close TarantoolClient instead.");
+        }
+    }
+
+    protected class FireAndForgetOps extends AbstractTarantoolOps<Integer, List<?>, Object, Long> {
+        @Override
+        public Long exec(Code code, Object... args) {
+            Channel ch = channel;
+            if (ch == null || thumbstone != null) {
+                throw new CommunicationException("Connection is not alive", thumbstone);
+            }
+            long sync = syncId.incrementAndGet();
+            ch.writeAndFlush(encode(ch, code, sync, args), ch.voidPromise());
+            return sync;
+        }
+
+        @Override
+        public void close() {
+            throw new IllegalStateException("You should close TarantoolClient instead.");
+        }
+    }
+}
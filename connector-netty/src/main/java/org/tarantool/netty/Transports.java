@@ -0,0 +1,47 @@
+package org.tarantool.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * Native epoll transport where both the platform and the classpath have it, NIO otherwise.
+ */
+public class Transports {
+    public static boolean isEpollAvailable() {
+        try {
+            return Epoll.isAvailable();
+        } catch (LinkageError e) {
+            // netty-transport-native-epoll is an optional dependency
+            return false;
+        }
+    }
+
+    public static EventLoopGroup newEventLoopGroup(int threads) {
+        return isEpollAvailable() ? EpollTransport.newEventLoopGroup(threads) : new NioEventLoopGroup(threads);
+    }
+
+    /**
+     * @return socket channel class matching the transport of the group
+     */
+    public static Class<? extends Channel> channelClass(EventLoopGroup group) {
+        return group instanceof NioEventLoopGroup ? NioSocketChannel.class : EpollTransport.channelClass();
+    }
+
+    /**
+     * Keeps the epoll classes out of the verification of {@link Transports}, they may be missing.
+     */
+    private static class EpollTransport {
+        static EventLoopGroup newEventLoopGroup(int threads) {
+            return new EpollEventLoopGroup(threads);
+        }
+
+        static Class<? extends Channel> channelClass() {
+            return EpollSocketChannel.class;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.tarantool.netty;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.tarantool.CommunicationException;
+import org.tarantool.Key;
+import org.tarantool.MsgPackLite;
+import org.tarantool.TarantoolClientConfig;
+import org.tarantool.TarantoolException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the Netty client against a stub server answering evals with their arguments,
+ * failing {@code error} and dropping the connection on {@code close}.
+ */
+class TarantoolNettyClientTest {
+    private ServerSocketChannel server;
+    private Thread acceptor;
+    private final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+    private TarantoolNettyClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = ServerSocketChannel.open();
+        server.socket().bind(new InetSocketAddress("localhost", 0));
+        acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        final SocketChannel channel = server.accept();
+                        Thread connection = new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                serve(channel);
+                            }
+                        });
+                        connection.setDaemon(true);
+                        connection.start();
+                    }
+                } catch (IOException ignored) {
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        TarantoolClientConfig config = new TarantoolClientConfig();
+        config.initTimeoutMillis = 5000;
+        client = new TarantoolNettyClient(server.socket().getLocalSocketAddress(), config);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.close();
+        acceptor.join();
+        assertNull(error.get());
+    }
+
+    @Test
+    void testRequests() throws Exception {
+        assertEquals(Collections.singletonList("sync"), client.syncOps().eval("return ...", "sync"));
+
+        List<Future<List<?>>> futures = new ArrayList<Future<List<?>>>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(client.asyncOps().eval("return ...", i));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(Collections.singletonList(i), futures.get(i).get(5, TimeUnit.SECONDS));
+        }
+
+        // larger than the initial request buffer
+        char[] large = new char[64 * 1024];
+        Arrays.fill(large, 'l');
+        assertEquals(Collections.singletonList(new String(large)), client.syncOps().eval("return ...", new String(large)));
+    }
+
+    @Test
+    void testServerError() {
+        TarantoolException e = assertThrows(TarantoolException.class, new Executable() {
+            @Override
+            public void execute() {
+                client.syncOps().eval("error");
+            }
+        });
+        assertEquals("boom", e.getMessage());
+        assertEquals(Collections.singletonList("alive"), client.syncOps().eval("return ...", "alive"));
+    }
+
+    @Test
+    void testReconnect() throws Exception {
+        final Future<List<?>> lost = client.asyncOps().eval("close");
+        ExecutionException e = assertThrows(ExecutionException.class, new Executable() {
+            @Override
+            public void execute() throws Throwable {
+                lost.get(5, TimeUnit.SECONDS);
+            }
+        });
+        assertTrue(e.getCause() instanceof CommunicationException);
+
+        assertTrue(client.waitAlive(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("again"), client.syncOps().eval("return ...", "again"));
+    }
+
+    private void serve(SocketChannel channel) {
+        try {
+            byte[] greeting = new byte[128];
+            Arrays.fill(greeting, (byte) ' ');
+            byte[] version = "Tarantool 2.1.0 (Binary) stub".getBytes("US-ASCII");
+            System.arraycopy(version, 0, greeting, 0, version.length);
+            greeting[63] = '\n';
+            greeting[127] = '\n';
+            writeFully(channel, ByteBuffer.wrap(greeting));
+
+            MsgPackLite msgPackLite = MsgPackLite.INSTANCE;
+            ByteBuffer size = ByteBuffer.allocate(5);
+            while (true) {
+                size.clear();
+                readFully(channel, size);
+                size.flip();
+                ByteBuffer frame = ByteBuffer.allocate(size.getInt(1));
+                readFully(channel, frame);
+                frame.flip();
+                Map<?, ?> header = (Map<?, ?>) msgPackLite.unpack(frame);
+                Map<?, ?> body = (Map<?, ?>) msgPackLite.unpack(frame);
+                Object expression = body.get(Key.EXPRESSION.getId());
+                if ("close".equals(expression)) {
+                    return;
+                }
+
+                Map<Object, Object> responseBody = new HashMap<Object, Object>();
+                long code = 0;
+                if ("error".equals(expression)) {
+                    code = 0x8000 | 32;
+                    responseBody.put(Key.ERROR.getId(), "boom");
+                } else {
+                    responseBody.put(Key.DATA.getId(), body.get(Key.TUPLE.getId()));
+                }
+                ByteBuffer response = ByteBuffer.allocate(frame.capacity() + 64);
+                response.position(5);
+                msgPackLite.packMapHeader(2, response);
+                msgPackLite.pack(Key.CODE, response);
+                msgPackLite.packLong(code, response);
+                msgPackLite.pack(Key.SYNC, response);
+                msgPackLite.pack(header.get(Key.SYNC.getId()), response);
+                response = msgPackLite.pack(responseBody, response);
+                response.put(0, (byte) 0xce);
+                response.putInt(1, response.position() - 5);
+                response.flip();
+                writeFully(channel, response);
+            }
+        } catch (IOException ignored) {
+        } catch (Throwable e) {
+            error.set(e);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Closed");
+            }
+        }
+    }
+
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
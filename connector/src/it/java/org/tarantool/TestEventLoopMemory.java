@@ -0,0 +1,115 @@
+package org.tarantool;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Measures the direct memory taken by clients attached to an event loop group, once they are connected
+ * and once every one of them has pipelined a burst of pings and written a few requests too large for its ring.
+ * The server is the stub of {@link TestWaitStrategies} run in a separate JVM, as its threads cache
+ * direct buffers as large as the requests they read, which would be counted as the ones of the clients.
+ * Arguments: number of clients, 40 by default, then number of event loops, 2 by default.
+ */
+public class TestEventLoopMemory {
+    static final int BURST = 10000;
+    static final int LARGE_REQUESTS = 10;
+    static final int LARGE_REQUEST_SIZE = 1024 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "server".equals(args[0])) {
+            serve();
+            return;
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process server = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                TestEventLoopMemory.class.getName(), "server").start();
+        BufferedReader output = new BufferedReader(new InputStreamReader(server.getInputStream()));
+        final int port = Integer.parseInt(output.readLine());
+
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        report("before the group", null);
+        TarantoolEventLoopGroup group = new TarantoolEventLoopGroup(threads);
+        report("group of " + threads + " event loops", null);
+
+        List<TarantoolClientImpl> attached = new ArrayList<TarantoolClientImpl>();
+        for (int i = 0; i < clients; i++) {
+            TarantoolClientConfig config = new TarantoolClientConfig();
+            config.eventLoopGroup = group;
+            config.initTimeoutMillis = 5000;
+            attached.add(new TarantoolClientImpl(new SocketChannelProvider() {
+                @Override
+                public SocketChannel get(int retryNumber, Throwable lastError) {
+                    try {
+                        SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port));
+                        channel.socket().setTcpNoDelay(true);
+                        return channel;
+                    } catch (IOException e) {
+                        throw new CommunicationException("Cannot connect", e);
+                    }
+                }
+            }, config));
+        }
+        report(clients + " clients connected", attached);
+
+        char[] large = new char[LARGE_REQUEST_SIZE];
+        Arrays.fill(large, 'l');
+        String largeArgument = new String(large);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (TarantoolClientImpl client : attached) {
+            for (int i = 0; i < BURST; i++) {
+                futures.add(client.asyncOps().eval("return ...", i));
+            }
+            for (int i = 0; i < LARGE_REQUESTS; i++) {
+                futures.add(client.asyncOps().eval("return ...", largeArgument));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        report("after " + BURST + " pipelined and " + LARGE_REQUESTS + " large requests per client", attached);
+
+        for (TarantoolClientImpl client : attached) {
+            client.close();
+        }
+        group.shutdown();
+        server.destroy();
+    }
+
+    /**
+     * Runs the stub server until the process is destroyed, printing its port first.
+     */
+    static void serve() throws IOException {
+        TestWaitStrategies.StubServer server = new TestWaitStrategies.StubServer();
+        System.out.println(server.getPort());
+        System.out.flush();
+        server.run();
+    }
+
+    static void report(String stage, List<TarantoolClientImpl> clients) {
+        StringBuilder line = new StringBuilder(stage).append(": direct ");
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                line.append(pool.getMemoryUsed() / 1024).append(" KB in ").append(pool.getCount()).append(" buffers");
+            }
+        }
+        if (clients != null) {
+            long rings = 0;
+            for (TarantoolClientImpl client : clients) {
+                rings += client.ring.capacity();
+            }
+            line.append(", rings ").append(rings / 1024).append(" KB");
+        }
+        System.out.println(line);
+    }
+}
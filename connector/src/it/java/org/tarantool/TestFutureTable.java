@@ -0,0 +1,108 @@
+package org.tarantool;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compares {@link FutureTable} with the {@link ConcurrentHashMap} it replaced, sized by the former default
+ * of predictedFutures: heap retained by an idle table holding one future, and time and allocation
+ * per put and remove with a thousand requests in flight.
+ * Requires a HotSpot JVM for per-thread allocation counters.
+ */
+public class TestFutureTable {
+    static final int ITERATIONS = 10000000;
+    static final int IN_FLIGHT = 1000;
+
+    interface Table {
+        void put(FutureImpl<?> future);
+
+        Object remove(long id);
+    }
+
+    public static void main(String[] args) {
+        final int oldDefault = (int) ((1024 * 1024) / 0.75) + 1;
+        System.out.println("idle map: " + retained(new Runnable() {
+            Map<Long, FutureImpl<?>> map;
+
+            @Override
+            public void run() {
+                map = new ConcurrentHashMap<Long, FutureImpl<?>>(oldDefault);
+                map.put(1L, new FutureImpl<Object>(1, Code.PING));
+            }
+        }) / 1024 + " KB");
+        System.out.println("idle table: " + retained(new Runnable() {
+            FutureTable table;
+
+            @Override
+            public void run() {
+                table = new FutureTable(new TarantoolClientConfig().predictedFutures);
+                table.put(new FutureImpl<Object>(1, Code.PING));
+            }
+        }) / 1024 + " KB");
+
+        final Map<Long, FutureImpl<?>> map = new ConcurrentHashMap<Long, FutureImpl<?>>(oldDefault);
+        final FutureTable table = new FutureTable(new TarantoolClientConfig().predictedFutures);
+        for (int round = 0; round < 5; round++) {
+            measure("map", new Table() {
+                @Override
+                public void put(FutureImpl<?> future) {
+                    map.put(future.getId(), future);
+                }
+
+                @Override
+                public Object remove(long id) {
+                    return map.remove(id);
+                }
+            });
+            measure("table", new Table() {
+                @Override
+                public void put(FutureImpl<?> future) {
+                    table.put(future);
+                }
+
+                @Override
+                public Object remove(long id) {
+                    return table.remove(id);
+                }
+            });
+        }
+    }
+
+    static long retained(Runnable allocation) {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        allocation.run();
+        System.gc();
+        long after = runtime.totalMemory() - runtime.freeMemory();
+        return after - before;
+    }
+
+    static void measure(String name, Table table) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        FutureImpl<?>[] futures = new FutureImpl<?>[IN_FLIGHT];
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            futures[i] = new FutureImpl<Object>(i, Code.PING);
+            table.put(futures[i]);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            int index = i % IN_FLIGHT;
+            if (table.remove(futures[index].id) == null) {
+                throw new IllegalStateException();
+            }
+            // a new future per request as in the client, which is what the table allocation figure consists of
+            futures[index] = new FutureImpl<Object>(IN_FLIGHT + i, Code.PING);
+            table.put(futures[index]);
+        }
+        long time = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - allocated;
+        for (FutureImpl<?> future : futures) {
+            table.remove(future.id);
+        }
+        System.out.println(name + ": " + time / ITERATIONS + " ns, " + bytes / ITERATIONS + " B per put and remove, the future included");
+    }
+}
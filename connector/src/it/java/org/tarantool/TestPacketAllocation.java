@@ -0,0 +1,107 @@
+package org.tarantool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures heap allocated per encoded request.
+ * Compares {@link TarantoolBase#createPacket} with the stream based encoding it replaced.
+ * Requires a HotSpot JVM for per-thread allocation counters.
+ */
+public class TestPacketAllocation {
+    static final int ITERATIONS = 1000000;
+
+    static class WrappingOutputStream extends ByteArrayOutputStream {
+        WrappingOutputStream(int size) {
+            super(size);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    static class Encoder extends TarantoolBase<Object> {
+        @Override
+        protected Object exec(Code code, Object... args) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        ByteBuffer legacyCreatePacket(Code code, Long syncId, Object... args) throws IOException {
+            WrappingOutputStream bos = new WrappingOutputStream(initialRequestSize);
+            bos.write(new byte[5]);
+            DataOutputStream ds = new DataOutputStream(bos);
+            Map<Key, Object> header = new EnumMap<Key, Object>(Key.class);
+            Map<Key, Object> body = new EnumMap<Key, Object>(Key.class);
+            header.put(Key.CODE, code);
+            header.put(Key.SYNC, syncId);
+            for (int i = 0, e = args.length; i < e; i += 2) {
+                body.put((Key) args[i], args[i + 1]);
+            }
+            msgPackLite.pack(header, ds);
+            msgPackLite.pack(body, ds);
+            ds.flush();
+            ByteBuffer buffer = bos.toByteBuffer();
+            buffer.put(0, (byte) 0xce);
+            buffer.putInt(1, bos.size() - 5);
+            return buffer;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Encoder encoder = new Encoder();
+        List<Object> tuple = new ArrayList<Object>();
+        for (int i = 0; i < 5; i++) {
+            tuple.add(100000L + i);
+            tuple.add("field " + i);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            long start = threads.getThreadAllocatedBytes(threadId);
+            for (long i = 0; i < ITERATIONS; i++) {
+                encoder.legacyCreatePacket(Code.REPLACE, i, Key.SPACE, 512, Key.TUPLE, tuple);
+            }
+            long legacy = threads.getThreadAllocatedBytes(threadId) - start;
+
+            start = threads.getThreadAllocatedBytes(threadId);
+            for (long i = 0; i < ITERATIONS; i++) {
+                encoder.releaseRequestBuffer(encoder.createPacket(Code.REPLACE, i, null, Key.SPACE, 512, Key.TUPLE, tuple));
+            }
+            long buffer = threads.getThreadAllocatedBytes(threadId) - start;
+
+            ByteBuffer reused = ByteBuffer.allocate(encoder.initialRequestSize);
+            start = threads.getThreadAllocatedBytes(threadId);
+            for (long i = 0; i < ITERATIONS; i++) {
+                reused = encoder.createPacket(reused, Code.REPLACE, i, null, Key.SPACE, 512, Key.TUPLE, tuple);
+            }
+            long reuse = threads.getThreadAllocatedBytes(threadId) - start;
+
+            long[] key = {100000L, 100001L, 100002L, 100003L};
+            start = threads.getThreadAllocatedBytes(threadId);
+            for (long i = 0; i < ITERATIONS; i++) {
+                reused.clear();
+                reused = encoder.msgPackLite.pack(key, reused);
+            }
+            long keys = threads.getThreadAllocatedBytes(threadId) - start;
+
+            System.out.println("replace of a 10-field tuple, bytes allocated per request:" +
+                "\nstream encoder = " + legacy / ITERATIONS +
+                "\nbuffer encoder, pooled buffer = " + buffer / ITERATIONS +
+                "\nbuffer encoder, reused buffer = " + reuse / ITERATIONS +
+                "\nlong[4] key alone, reused buffer = " + keys / ITERATIONS + "\n");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.tarantool;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures encoding and decoding of tuples with mostly short ASCII strings:
+ * the charset based codec versus the ASCII fast path, with and without {@link StringCache}.
+ * Requires a HotSpot JVM for per-thread allocation counters.
+ * Run once per mode ({@code charset}, {@code ascii}, {@code cache}), since sharing one JVM
+ * between the codecs skews the JIT profile towards whichever runs first.
+ */
+public class TestStringCodec {
+    static final int ITERATIONS = 2000000;
+    static final String[] STATUSES = {"active", "blocked", "deleted", "pending"};
+    static final String[] COUNTRIES = {"RU", "US", "DE", "FR", "JP", "BR"};
+
+    static class CharsetMsgPackLite extends MsgPackLite {
+        @Override
+        protected ByteBuffer packString(String str, ByteBuffer buffer) {
+            byte[] data = str.getBytes(UTF8);
+            buffer = packStrHeader(data.length, buffer);
+            buffer = ensureCapacity(buffer, data.length);
+            buffer.put(data);
+            return buffer;
+        }
+
+        @Override
+        protected String decodeString(byte[] data, int offset, int length) {
+            return new String(data, offset, length, UTF8);
+        }
+    }
+
+    public static void main(String[] args) {
+        List<List<?>> tuples = new ArrayList<List<?>>();
+        for (int i = 0; i < 1024; i++) {
+            tuples.add(Arrays.asList(100000L + i, STATUSES[i % STATUSES.length], "user" + i, "user" + i + "@example.com",
+                    COUNTRIES[i % COUNTRIES.length], i % 10 == 0 ? "Пользователь " + i : "Regular user number " + i));
+        }
+        String mode = args.length > 0 ? args[0] : "ascii";
+        MsgPackLite msgPackLite;
+        if ("charset".equals(mode)) {
+            msgPackLite = new CharsetMsgPackLite();
+        } else {
+            msgPackLite = new MsgPackLite();
+            if ("cache".equals(mode)) {
+                msgPackLite.setStringCache(new StringCache(1024, 16));
+            }
+        }
+        for (int round = 0; round < 5; round++) {
+            measure(mode, msgPackLite, tuples);
+        }
+    }
+
+    static void measure(String name, MsgPackLite msgPackLite, List<List<?>> tuples) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            buffer.clear();
+            buffer = msgPackLite.pack(tuples.get(i & 1023), buffer);
+        }
+        long encodeTime = System.nanoTime() - start;
+        long encodeBytes = threads.getThreadAllocatedBytes(threadId) - allocated;
+
+        List<ByteBuffer> encoded = new ArrayList<ByteBuffer>();
+        for (List<?> tuple : tuples) {
+            ByteBuffer packed = msgPackLite.pack(tuple, ByteBuffer.allocate(256));
+            packed.flip();
+            encoded.add(packed);
+        }
+        allocated = threads.getThreadAllocatedBytes(threadId);
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            ByteBuffer packed = encoded.get(i & 1023);
+            packed.rewind();
+            msgPackLite.unpack(packed);
+        }
+        long decodeTime = System.nanoTime() - start;
+        long decodeBytes = threads.getThreadAllocatedBytes(threadId) - allocated;
+
+        System.out.println(name + ", per tuple:" +
+                " encode " + encodeTime / ITERATIONS + " ns, " + encodeBytes / ITERATIONS + " B;" +
+                " decode " + decodeTime / ITERATIONS + " ns, " + decodeBytes / ITERATIONS + " B");
+    }
+}
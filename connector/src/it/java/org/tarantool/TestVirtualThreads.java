@@ -0,0 +1,81 @@
+package org.tarantool;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures throughput of sync calls made from 100k concurrent virtual threads, each one pinging in a loop,
+ * with requests handed over to the writer and with {@link TarantoolClientConfig#virtualThreadWrites}.
+ * The server is the in-process stub of {@link TestWaitStrategies}. Requires Java 21, the executor is
+ * looked up reflectively as the tests are compiled for older versions.
+ * Arguments: number of virtual threads, then pings per thread.
+ */
+public class TestVirtualThreads {
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int pings = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        final TestWaitStrategies.StubServer server = new TestWaitStrategies.StubServer();
+        Thread serverThread = new Thread(server);
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        System.out.println(Runtime.getRuntime().availableProcessors() + " cores");
+        for (int round = 0; round < 3; round++) {
+            for (boolean virtualThreadWrites : new boolean[] {false, true}) {
+                TarantoolClientConfig config = new TarantoolClientConfig();
+                config.virtualThreadWrites = virtualThreadWrites;
+                config.predictedFutures = threads;
+                TarantoolClientImpl client = new TarantoolClientImpl(new SocketChannelProvider() {
+                    @Override
+                    public SocketChannel get(int retryNumber, Throwable lastError) {
+                        try {
+                            SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()));
+                            channel.socket().setTcpNoDelay(true);
+                            return channel;
+                        } catch (IOException e) {
+                            throw new CommunicationException("Cannot connect", e);
+                        }
+                    }
+                }, config);
+                try {
+                    measure(virtualThreadWrites ? "virtual thread writes" : "writer hand-off", client, threads, pings);
+                } finally {
+                    client.close();
+                }
+            }
+        }
+        server.server.close();
+    }
+
+    static void measure(String name, final TarantoolClientImpl client, int threads, final int pings) throws Exception {
+        ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        List<Future<?>> tasks = new ArrayList<Future<?>>(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            tasks.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < pings; j++) {
+                        client.syncOps().ping();
+                    }
+                }
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        long time = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        TarantoolClientStats stats = client.getStats();
+        System.out.println(name + ": " + (long) threads * pings * 1000000000L / time + " calls/s, " +
+                stats.virtualThreadWrites + " written by virtual threads, " + stats.sharedWrites + " writer batches");
+    }
+}
@@ -0,0 +1,180 @@
+package org.tarantool;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Measures the round trip latency of pings with every writer and reader wait strategy.
+ * Pings are sent one at a time, so each of them wakes the I/O threads up from idle.
+ * The server is an in-process stub answering every request with an empty body,
+ * so the figures are the latency added by the client rather than by Tarantool.
+ * Spinning strategies need a core for each of the caller, the writer and the reader besides the stub server:
+ * on fewer cores the threads fight over them and the figures measure starvation, so the run is flagged.
+ * Every strategy is measured with the same number of pings. For figures which do not depend on what the
+ * scheduler does, run one strategy per JVM pinned to dedicated cores, e.g. {@code taskset -c 2-5 java ...}.
+ * Arguments: number of measured pings, then names of the strategies to measure, all by default.
+ */
+public class TestWaitStrategies {
+    static int warmup = 20000;
+    static int iterations = 50000;
+    /**
+     * Threads which keep a core busy with a spinning strategy: the caller, the writer and the reader
+     */
+    static final int SPINNING_THREADS = 3;
+
+    static class StubServer implements Runnable {
+        final ServerSocketChannel server;
+
+        StubServer() throws IOException {
+            server = ServerSocketChannel.open();
+            server.socket().bind(new InetSocketAddress("localhost", 0));
+        }
+
+        int getPort() {
+            return server.socket().getLocalPort();
+        }
+
+        @Override
+        public void run() {
+            while (!server.socket().isClosed()) {
+                try {
+                    final SocketChannel channel = server.accept();
+                    channel.socket().setTcpNoDelay(true);
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            serve(channel);
+                        }
+                    });
+                    thread.setDaemon(true);
+                    thread.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        void serve(SocketChannel channel) {
+            try {
+                byte[] greeting = new byte[128];
+                Arrays.fill(greeting, (byte) ' ');
+                byte[] version = "Tarantool 1.10.0 (Binary) stub".getBytes("US-ASCII");
+                System.arraycopy(version, 0, greeting, 0, version.length);
+                greeting[63] = '\n';
+                greeting[127] = '\n';
+                writeFully(channel, ByteBuffer.wrap(greeting));
+
+                MsgPackLite msgPackLite = MsgPackLite.INSTANCE;
+                ByteBuffer size = ByteBuffer.allocate(5);
+                ByteBuffer response = ByteBuffer.allocate(64);
+                while (true) {
+                    size.clear();
+                    readFully(channel, size);
+                    size.flip();
+                    ByteBuffer frame = ByteBuffer.allocate(((Number) msgPackLite.unpack(size)).intValue());
+                    readFully(channel, frame);
+                    frame.flip();
+                    Map<?, ?> header = (Map<?, ?>) msgPackLite.unpack(frame);
+
+                    response.clear();
+                    response.position(5);
+                    msgPackLite.packMapHeader(2, response);
+                    msgPackLite.pack(Key.CODE, response);
+                    msgPackLite.packLong(0, response);
+                    msgPackLite.pack(Key.SYNC, response);
+                    msgPackLite.pack(header.get(Key.SYNC.getId()), response);
+                    msgPackLite.packMapHeader(0, response);
+                    response.put(0, (byte) 0xce);
+                    response.putInt(1, response.position() - 5);
+                    response.flip();
+                    writeFully(channel, response);
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Closed");
+                }
+            }
+        }
+
+        static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        final StubServer server = new StubServer();
+        Thread serverThread = new Thread(server);
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        if (args.length > 0) {
+            iterations = Integer.parseInt(args[0]);
+            warmup = Math.min(warmup, iterations);
+        }
+        String[] names = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) :
+                new String[] {"BLOCKING", "SLEEPING", "YIELDING", "BUSY_SPIN"};
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println(cores + " cores, " + iterations + " pings per strategy after " + warmup + " to warm up");
+        if (cores < SPINNING_THREADS + 1) {
+            System.out.println("WARNING: spinning strategies need " + (SPINNING_THREADS + 1) + " cores, " +
+                    "their figures below measure starvation");
+        }
+        for (String name : names) {
+            WaitStrategy strategy = (WaitStrategy) WaitStrategies.class.getField(name).get(null);
+            TarantoolClientConfig config = new TarantoolClientConfig();
+            config.writerWaitStrategy = strategy;
+            config.readerWaitStrategy = strategy;
+            config.sharedBufferSize = 64 * 1024;
+            config.predictedFutures = 1024;
+            TarantoolClientImpl client = new TarantoolClientImpl(new SocketChannelProvider() {
+                @Override
+                public SocketChannel get(int retryNumber, Throwable lastError) {
+                    try {
+                        SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()));
+                        channel.socket().setTcpNoDelay(true);
+                        return channel;
+                    } catch (IOException e) {
+                        throw new CommunicationException("Cannot connect", e);
+                    }
+                }
+            }, config);
+            try {
+                measure(name, client);
+            } finally {
+                client.close();
+            }
+        }
+        server.server.close();
+    }
+
+    static void measure(String name, TarantoolClientImpl client) {
+        for (int i = 0; i < warmup; i++) {
+            client.ping();
+        }
+        long[] latencies = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            client.ping();
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        System.out.println(name + ": p50 " + percentile(latencies, 0.5) + " us, p99 " + percentile(latencies, 0.99) +
+                " us, p99.9 " + percentile(latencies, 0.999) + " us, max " + latencies[iterations - 1] / 1000 + " us");
+    }
+
+    static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1000;
+    }
+}
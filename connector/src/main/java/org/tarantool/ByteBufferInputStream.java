@@ -0,0 +1,104 @@
+package org.tarantool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+
+public class ByteBufferInputStream extends CountInputStream {
+    protected final SocketChannel channel;
+    /**
+     * Selector to wait for data in or {@code null} if the channel is read in an event loop
+     */
+    protected final Selector selector;
+    protected final WaitStrategy waitStrategy;
+
+    public ByteBufferInputStream(SocketChannel channel) throws IOException {
+        this(channel, WaitStrategies.BLOCKING);
+    }
+
+    /**
+     * @param waitStrategy how to wait while there is nothing to read, a blocking one waits in a selector
+     */
+    public ByteBufferInputStream(SocketChannel channel, WaitStrategy waitStrategy) throws IOException {
+        super(receiveBufferSize(channel));
+        this.waitStrategy = waitStrategy;
+        selector = SelectorProvider.provider().openSelector();
+        this.channel = channel;
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ);
+    }
+
+    /**
+     * Reads from the channel in whatever mode it is without a selector of its own,
+     * so that a non-blocking channel may be registered in an event loop and read with {@link #readAvailable()}.
+     */
+    public ByteBufferInputStream(SocketChannel channel, int bufferSize) {
+        super(bufferSize);
+        this.waitStrategy = WaitStrategies.SLEEPING;
+        this.selector = null;
+        this.channel = channel;
+    }
+
+    private static int receiveBufferSize(SocketChannel channel) throws IOException {
+        try {
+            return channel.socket().getReceiveBufferSize();
+        } catch (UnsupportedOperationException e) {
+            // channels of Unix domain sockets have no socket adaptor
+            return DEFAULT_BUFFER_SIZE;
+        }
+    }
+
+    /**
+     * Reads whatever the channel has without waiting, making room for the rest of a packet started in the buffer.
+     *
+     * @return number of bytes read
+     */
+    public int readAvailable() throws IOException {
+        int needed = buffer.remaining() + 1;
+        if (buffer.hasRemaining()) {
+            int prefix = prefixLength();
+            if (buffer.remaining() >= prefix) {
+                needed = Math.max(needed, prefix + frameSize(prefix));
+            }
+        }
+        makeRoom(needed);
+        int n = channel.read(buffer);
+        buffer.flip();
+        if (n < 0) {
+            throw new CommunicationException("Channel read failed " + n);
+        }
+        return n;
+    }
+
+    @Override
+    protected void fill(ByteBuffer buffer) throws IOException {
+        int n;
+        int attempt = 0;
+        do {
+            n = channel.read(buffer);
+            if (n == 0) {
+                if (waitStrategy.isBlocking()) {
+                    selector.select();
+                } else {
+                    waitStrategy.idle(attempt++);
+                }
+            } else {
+                buffer.flip();
+            }
+        } while (n == 0);
+        if (n < 0) {
+            throw new CommunicationException("Channel read failed " + n);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (selector != null) {
+            selector.close();
+        }
+        channel.close();
+    }
+}
@@ -0,0 +1,164 @@
+package org.tarantool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Buffered input which reads packets as a whole and counts the bytes it has returned.
+ */
+public abstract class CountInputStream extends InputStream {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    protected final ByteBuffer initialBuffer;
+    /**
+     * Holds read but not yet consumed bytes between position and limit,
+     * replaced by a larger one while a frame does not fit into the initial buffer.
+     */
+    protected ByteBuffer buffer;
+    protected ByteBuffer frame;
+    protected long bytesRead;
+
+    protected CountInputStream(int bufferSize) {
+        initialBuffer = ByteBuffer.allocate(bufferSize);
+        initialBuffer.flip();
+        setBuffer(initialBuffer);
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensure(1);
+        bytesRead++;
+        return 0XFF & buffer.get();
+    }
+
+    @Override
+    public int read(byte[] b, final int off, final int len) throws IOException {
+        bytesRead += len;
+        int i = off;
+        int l = len;
+        while (l > 0) {
+            ensure(1);
+            int n = Math.min(buffer.remaining(), l);
+            buffer.get(b, i, n);
+            i += n;
+            l -= n;
+        }
+        return len;
+    }
+
+    /**
+     * Reads the size prefix of a packet and then the whole packet into the buffer.
+     *
+     * @return view of the packet without its size prefix, only valid until the next read
+     */
+    public ByteBuffer readFrame() throws IOException {
+        ensure(1);
+        int prefix = prefixLength();
+        ensure(prefix);
+        int size = frameSize(prefix);
+        ensure(prefix + size);
+        int start = buffer.position() + prefix;
+        frame.limit(start + size);
+        frame.position(start);
+        buffer.position(start + size);
+        bytesRead += prefix + size;
+        return frame;
+    }
+
+    /**
+     * @return {@code true} if a whole packet is in the buffer, so {@link #readFrame()} returns it without reading
+     */
+    public boolean hasFrame() {
+        if (!buffer.hasRemaining()) {
+            return false;
+        }
+        int prefix = prefixLength();
+        return buffer.remaining() >= prefix && buffer.remaining() - prefix >= frameSize(prefix);
+    }
+
+    /**
+     * @return length of the size prefix starting at the position of the buffer
+     */
+    protected int prefixLength() {
+        int type = buffer.get(buffer.position()) & 0xFF;
+        if (type <= 0x7f) {
+            return 1;
+        } else if (type == 0xcc) {
+            return 2;
+        } else if (type == 0xcd) {
+            return 3;
+        } else if (type == 0xce) {
+            return 5;
+        }
+        throw new CommunicationException("Invalid packet size type 0x" + Integer.toHexString(type));
+    }
+
+    /**
+     * @param prefix length of the size prefix, which has to be in the buffer
+     * @return size of the packet following the prefix
+     */
+    protected int frameSize(int prefix) {
+        int position = buffer.position();
+        int size;
+        switch (prefix) {
+        case 1:
+            size = buffer.get(position);
+            break;
+        case 2:
+            size = buffer.get(position + 1) & 0xFF;
+            break;
+        case 3:
+            size = buffer.getShort(position + 1) & 0xFFFF;
+            break;
+        default:
+            size = buffer.getInt(position + 1);
+        }
+        if (size < 0) {
+            throw new CommunicationException("Invalid packet size " + (size & 0xFFFFFFFFL));
+        }
+        return size;
+    }
+
+    /**
+     * Reads until at least {@code n} bytes are available.
+     */
+    protected void ensure(int n) throws IOException {
+        while (buffer.remaining() < n) {
+            makeRoom(n);
+            fill(buffer);
+        }
+    }
+
+    /**
+     * Prepares the buffer for writing with room for {@code n} bytes in total,
+     * compacting it or moving to a larger one if they would not fit.
+     * The initial buffer is taken back once a larger one is drained.
+     */
+    protected void makeRoom(int n) {
+        if (!buffer.hasRemaining() && buffer != initialBuffer && n <= initialBuffer.capacity()) {
+            initialBuffer.clear();
+            setBuffer(initialBuffer);
+        } else if (buffer.capacity() < n) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(n, buffer.capacity() * 2));
+            larger.put(buffer);
+            setBuffer(larger);
+        } else {
+            buffer.compact();
+        }
+    }
+
+    protected void setBuffer(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.frame = buffer.duplicate();
+    }
+
+    /**
+     * Reads at least one byte into a buffer prepared for writing and flips it.
+     */
+    protected abstract void fill(ByteBuffer buffer) throws IOException;
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+}
@@ -0,0 +1,35 @@
+package org.tarantool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+public class CountInputStreamImpl extends CountInputStream {
+
+    protected InputStream is;
+
+    public CountInputStreamImpl(InputStream is) throws IOException {
+        this(is, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CountInputStreamImpl(InputStream is, int bufferSize) throws IOException {
+        super(bufferSize);
+        this.is = is;
+    }
+
+    @Override
+    protected void fill(ByteBuffer buffer) throws IOException {
+        int n = is.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        if (n < 0) {
+            throw new EOFException("End of stream after " + bytesRead + " bytes");
+        }
+        buffer.position(buffer.position() + n);
+        buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        is.close();
+    }
+}
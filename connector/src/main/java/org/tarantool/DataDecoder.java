@@ -0,0 +1,23 @@
+package org.tarantool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes the DATA of a response in place of the default decoding.
+ *
+ * @param <T> type of the decoded data
+ */
+public interface DataDecoder<T> {
+    /**
+     * @param msgPackLite codec of the connection
+     * @param frame       buffer positioned at the DATA value, which must be left positioned right after it
+     * @return decoded data
+     */
+    T decode(MsgPackLite msgPackLite, ByteBuffer frame);
+
+    /**
+     * @return whether the decoded data refers to the frame, which then is copied out of the shared read buffer
+     * and is not given back to the frame pool
+     */
+    boolean keepsFrame();
+}
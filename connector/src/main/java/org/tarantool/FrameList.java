@@ -0,0 +1,36 @@
+package org.tarantool;
+
+import java.util.ArrayList;
+
+/**
+ * DATA of a response decoded with binary views, which gives the frame they point into back to the pool on release.
+ *
+ * @see TarantoolClientConfig#binaryViews
+ */
+public class FrameList extends ArrayList<Object> implements Releasable {
+    protected transient FramePool pool;
+    protected transient byte[] frame;
+
+    /**
+     * @param size  number of elements
+     * @param pool  pool the frame was taken from or {@code null} if frames are not pooled
+     * @param frame array the elements point into
+     */
+    public FrameList(int size, FramePool pool, byte[] frame) {
+        super(size);
+        this.pool = pool;
+        this.frame = frame;
+    }
+
+    @Override
+    public void release() {
+        byte[] released;
+        synchronized (this) {
+            released = frame;
+            frame = null;
+        }
+        if (released != null && pool != null) {
+            pool.release(released);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.tarantool;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Pool of arrays responses are read into, bucketed by power of two sizes.
+ *
+ * Frames larger than the largest bucket are allocated as before and never pooled.
+ * Buckets are bounded, so a frame released into a full bucket is left to the garbage collector.
+ */
+public class FramePool {
+    protected static final int MIN_SHIFT = 10;
+
+    protected final ArrayBlockingQueue<byte[]>[] buckets;
+    protected final int maxFrameSize;
+
+    /**
+     * @param framesPerBucket number of frames kept for every size
+     * @param maxFrameSize    size of the largest frame to pool, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public FramePool(int framesPerBucket, int maxFrameSize) {
+        if (framesPerBucket < 1) {
+            throw new IllegalArgumentException("Frames per bucket should be positive");
+        }
+        if (maxFrameSize < 1 || maxFrameSize > 1 << 30) {
+            throw new IllegalArgumentException("Max frame size should be in range 1.." + (1 << 30));
+        }
+        this.buckets = new ArrayBlockingQueue[bucket(maxFrameSize) + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayBlockingQueue<byte[]>(framesPerBucket);
+        }
+        this.maxFrameSize = 1 << (MIN_SHIFT + buckets.length - 1);
+    }
+
+    /**
+     * @param size number of bytes to read
+     * @return array of at least {@code size} bytes
+     */
+    public byte[] acquire(int size) {
+        if (size > maxFrameSize) {
+            return new byte[size];
+        }
+        int bucket = bucket(size);
+        byte[] frame = buckets[bucket].poll();
+        return frame != null ? frame : new byte[1 << (MIN_SHIFT + bucket)];
+    }
+
+    /**
+     * @param frame array obtained from {@link #acquire(int)} which is not referenced anymore
+     */
+    public void release(byte[] frame) {
+        int size = frame.length;
+        if (Integer.bitCount(size) == 1 && size >= 1 << MIN_SHIFT && size <= maxFrameSize) {
+            buckets[Integer.numberOfTrailingZeros(size) - MIN_SHIFT].offer(frame);
+        }
+    }
+
+    protected int bucket(int size) {
+        return size <= 1 << MIN_SHIFT ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+    }
+}
@@ -10,8 +10,16 @@ import java.util.concurrent.locks.AbstractQueuedSynchronizer;
 public class FutureImpl<V> extends AbstractQueuedSynchronizer implements Future<V> {
     protected final long id;
     protected Code code;
+    protected DataDecoder<?> dataDecoder;
     protected V value;
     protected Exception error;
+    protected Runnable onComplete;
+    /**
+     * Size of the request packet and whether it takes room in flight, both owned by whoever removes the future
+     * from the futures of the client
+     */
+    protected int requestSize;
+    protected boolean inFlight;
 
     public FutureImpl(long id, Code code) {
         this.id = id;
@@ -26,12 +34,22 @@ public class FutureImpl<V> extends AbstractQueuedSynchronizer implements Future<
 
     public void setValue(V v) {
         value = v;
-        releaseShared(1);
+        if (releaseShared(1)) {
+            completed();
+        }
     }
 
     public void setError(Exception e) {
         error = e;
-        releaseShared(1);
+        if (releaseShared(1)) {
+            completed();
+        }
+    }
+
+    protected void completed() {
+        if (onComplete != null) {
+            onComplete.run();
+        }
     }
 
 
@@ -96,4 +114,22 @@ public class FutureImpl<V> extends AbstractQueuedSynchronizer implements Future<
     public Code getCode() {
         return code;
     }
+
+    /**
+     * @return decoder of the response DATA or {@code null} for the default decoding
+     */
+    public DataDecoder<?> getDataDecoder() {
+        return dataDecoder;
+    }
+
+    public void setDataDecoder(DataDecoder<?> dataDecoder) {
+        this.dataDecoder = dataDecoder;
+    }
+
+    /**
+     * @param onComplete called once by the thread completing the future, must be set before the request is sent
+     */
+    public void setOnComplete(Runnable onComplete) {
+        this.onComplete = onComplete;
+    }
 }
@@ -0,0 +1,79 @@
+package org.tarantool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Futures of sent requests indexed by their sync id.
+ *
+ * Sync ids grow by one, so a future goes to the slot {@code sync & mask} of a power of two table,
+ * which stays free as long as there are fewer requests in flight than slots. A future whose slot is
+ * still taken by an older request, which is slow to answer, goes to an overflow map instead.
+ * Neither path boxes the sync id or hashes it, apart from the overflow.
+ */
+public class FutureTable {
+    protected final AtomicReferenceArray<FutureImpl<?>> slots;
+    protected final int mask;
+    protected final Map<Long, FutureImpl<?>> overflow = new ConcurrentHashMap<Long, FutureImpl<?>>();
+
+    /**
+     * @param size number of slots, rounded up to a power of two
+     */
+    public FutureTable(int size) {
+        if (size < 1 || size > 1 << 30) {
+            throw new IllegalArgumentException("Table size should be in range 1.." + (1 << 30));
+        }
+        this.slots = new AtomicReferenceArray<FutureImpl<?>>(size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1);
+        this.mask = slots.length() - 1;
+    }
+
+    public void put(FutureImpl<?> future) {
+        if (!slots.compareAndSet((int) future.id & mask, null, future)) {
+            overflow.put(future.id, future);
+        }
+    }
+
+    /**
+     * @return future of the request or {@code null} if it has been removed already
+     */
+    public FutureImpl<?> remove(long id) {
+        int slot = (int) id & mask;
+        FutureImpl<?> future = slots.get(slot);
+        if (future != null && future.id == id) {
+            // the slot may only be retaken after the future is removed by someone else
+            return slots.compareAndSet(slot, future, null) ? future : null;
+        }
+        return overflow.isEmpty() ? null : overflow.remove(id);
+    }
+
+    /**
+     * @return {@code false} if the future has been removed already
+     */
+    public boolean remove(FutureImpl<?> future) {
+        return slots.compareAndSet((int) future.id & mask, future, null) || overflow.remove(future.id, future);
+    }
+
+    /**
+     * Removes all the futures. Futures put meanwhile may or may not be removed.
+     *
+     * @return futures removed
+     */
+    public List<FutureImpl<?>> removeAll() {
+        List<FutureImpl<?>> removed = new ArrayList<FutureImpl<?>>();
+        for (int i = 0; i < slots.length(); i++) {
+            FutureImpl<?> future = slots.get(i);
+            if (future != null && slots.compareAndSet(i, future, null)) {
+                removed.add(future);
+            }
+        }
+        for (FutureImpl<?> future : overflow.values()) {
+            if (overflow.remove(future.id, future)) {
+                removed.add(future);
+            }
+        }
+        return removed;
+    }
+}
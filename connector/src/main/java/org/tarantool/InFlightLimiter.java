@@ -0,0 +1,108 @@
+package org.tarantool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counts requests sent and not answered yet along with their size in bytes against limits.
+ * Acquiring is lock-free, only threads waiting for room take the lock.
+ * A batch over a limit on its own is let through when nothing is in flight, so it is never stuck.
+ */
+public class InFlightLimiter {
+    protected final int maxRequests;
+    protected final long maxBytes;
+    protected final AtomicInteger requests = new AtomicInteger();
+    protected final AtomicLong bytes = new AtomicLong();
+    protected final ReentrantLock lock = new ReentrantLock();
+    protected final Condition released = lock.newCondition();
+    protected volatile int waiters;
+
+    /**
+     * @param maxRequests limit of requests, 0 for no limit
+     * @param maxBytes    limit of bytes, 0 for no limit
+     */
+    public InFlightLimiter(int maxRequests, long maxBytes) {
+        this.maxRequests = maxRequests;
+        this.maxBytes = maxBytes;
+    }
+
+    public int getRequests() {
+        return requests.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * @return {@code true} if the requests would be acquired right now
+     */
+    public boolean canAcquire(int count, long size) {
+        return fits(requests.get(), maxRequests, count) && fits(bytes.get(), maxBytes, size);
+    }
+
+    public boolean tryAcquire(int count, long size) {
+        int r;
+        do {
+            r = requests.get();
+            if (!fits(r, maxRequests, count)) {
+                return false;
+            }
+        } while (!requests.compareAndSet(r, r + count));
+        long b;
+        do {
+            b = bytes.get();
+            if (!fits(b, maxBytes, size)) {
+                release(count, 0);
+                return false;
+            }
+        } while (!bytes.compareAndSet(b, b + size));
+        return true;
+    }
+
+    /**
+     * Waits for room up to the timeout.
+     *
+     * @return {@code false} if the timeout has passed
+     */
+    public boolean acquire(int count, long size, long timeout, TimeUnit unit) throws InterruptedException {
+        if (tryAcquire(count, size)) {
+            return true;
+        }
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        waiters++;
+        try {
+            while (!tryAcquire(count, size)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = released.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            waiters--;
+            lock.unlock();
+        }
+    }
+
+    public void release(int count, long size) {
+        requests.addAndGet(-count);
+        bytes.addAndGet(-size);
+        if (waiters > 0) {
+            lock.lock();
+            try {
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    protected boolean fits(long current, long max, long amount) {
+        return max <= 0 || current == 0 || current + amount <= max;
+    }
+}
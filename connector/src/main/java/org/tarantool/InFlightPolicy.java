@@ -0,0 +1,22 @@
+package org.tarantool;
+
+/**
+ * What happens to a request which would exceed the in-flight limits of the client.
+ *
+ * @see TarantoolClientConfig#maxInFlightRequests
+ * @see TarantoolClientConfig#maxInFlightBytes
+ */
+public enum InFlightPolicy {
+    /**
+     * The calling thread waits for responses to free the room up to the write timeout
+     */
+    BLOCK,
+    /**
+     * The future of the request fails with {@link java.util.concurrent.RejectedExecutionException} right away
+     */
+    FAIL_FAST,
+    /**
+     * The request is queued and the calling thread returns at once, the writer sends it once there is room
+     */
+    ASYNC_WAIT
+}
@@ -0,0 +1,29 @@
+package org.tarantool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Codec of a MsgPack extension type.
+ *
+ * @param <T> Java type the extension is mapped to
+ * @see MsgPackLite#registerExtension(Class, MsgPackExtension)
+ * @see MsgPackExtensions
+ */
+public interface MsgPackExtension<T> {
+    /**
+     * @return extension type id written after the ext header
+     */
+    byte getType();
+
+    /**
+     * @param value value to encode
+     * @return payload of the extension value without the ext header and type
+     */
+    byte[] encode(T value);
+
+    /**
+     * @param payload buffer whose remaining bytes are exactly the payload of the extension value
+     * @return decoded value
+     */
+    T decode(ByteBuffer payload);
+}
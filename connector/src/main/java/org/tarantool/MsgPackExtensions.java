@@ -0,0 +1,152 @@
+package org.tarantool;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * MsgPack extensions defined by Tarantool.
+ * All of them are registered in every {@link MsgPackLite} instance.
+ */
+public class MsgPackExtensions {
+    public static final Decimal DECIMAL = new Decimal();
+    public static final Uuid UUID = new Uuid();
+    public static final Datetime DATETIME = new Datetime();
+
+    /**
+     * MP_DECIMAL: scale as a MsgPack integer followed by the packed BCD digits,
+     * the last nibble holding the sign.
+     */
+    public static class Decimal implements MsgPackExtension<BigDecimal> {
+        @Override
+        public byte getType() {
+            return 1;
+        }
+
+        @Override
+        public byte[] encode(BigDecimal value) {
+            String digits = value.unscaledValue().abs().toString();
+            int length = digits.length();
+            byte[] bcd = new byte[length / 2 + 1];
+            // digits and the sign nibble fill whole bytes, an even number of digits gets a leading zero
+            int nibble = 1 - length % 2;
+            for (int i = 0; i < length; i++, nibble++) {
+                int digit = digits.charAt(i) - '0';
+                bcd[nibble / 2] |= nibble % 2 == 0 ? digit << 4 : digit;
+            }
+            bcd[bcd.length - 1] |= value.signum() < 0 ? 0x0d : 0x0c;
+
+            ByteBuffer buffer = MsgPackLite.INSTANCE.packLong(value.scale(), ByteBuffer.allocate(9 + bcd.length));
+            buffer.put(bcd);
+            byte[] payload = new byte[buffer.position()];
+            buffer.flip();
+            buffer.get(payload);
+            return payload;
+        }
+
+        @Override
+        public BigDecimal decode(ByteBuffer payload) {
+            int scale = (int) MsgPackLite.INSTANCE.unpackLong(payload);
+            int length = payload.remaining() * 2 - 1;
+            if (length < 1) {
+                throw new IllegalArgumentException("Decimal has no digits");
+            }
+            char[] digits = new char[length];
+            int sign = 0;
+            for (int i = 0; i <= length; i++) {
+                int b = payload.get(payload.position() + i / 2);
+                int nibble = i % 2 == 0 ? (b >> 4) & 0xf : b & 0xf;
+                if (i == length) {
+                    sign = nibble;
+                } else if (nibble > 9) {
+                    throw new IllegalArgumentException("Invalid decimal digit " + nibble);
+                } else {
+                    digits[i] = (char) ('0' + nibble);
+                }
+            }
+            payload.position(payload.limit());
+            BigInteger unscaled = new BigInteger(new String(digits));
+            return new BigDecimal(sign == 0x0b || sign == 0x0d ? unscaled.negate() : unscaled, scale);
+        }
+    }
+
+    /**
+     * MP_UUID: the 16 bytes of the UUID in network order.
+     */
+    public static class Uuid implements MsgPackExtension<UUID> {
+        @Override
+        public byte getType() {
+            return 2;
+        }
+
+        @Override
+        public byte[] encode(UUID value) {
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            buffer.putLong(value.getMostSignificantBits());
+            buffer.putLong(value.getLeastSignificantBits());
+            return buffer.array();
+        }
+
+        @Override
+        public UUID decode(ByteBuffer payload) {
+            return new UUID(payload.getLong(), payload.getLong());
+        }
+    }
+
+    /**
+     * MP_DATETIME: little-endian seconds since the epoch, optionally followed by
+     * nanoseconds, timezone offset in minutes and timezone index.
+     * The timezone is not kept since {@link Date} denotes an instant.
+     */
+    public static class Datetime implements MsgPackExtension<Date> {
+        @Override
+        public byte getType() {
+            return 4;
+        }
+
+        @Override
+        public byte[] encode(Date value) {
+            long millis = value.getTime();
+            long seconds = millis / 1000;
+            if (millis % 1000 < 0) {
+                seconds--;
+            }
+            int nanos = getNanos(value, millis - seconds * 1000);
+            ByteBuffer buffer = ByteBuffer.allocate(nanos == 0 ? 8 : 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putLong(seconds);
+            if (nanos != 0) {
+                buffer.putInt(nanos);
+                buffer.putShort((short) 0);
+                buffer.putShort((short) 0);
+            }
+            return buffer.array();
+        }
+
+        @Override
+        public Date decode(ByteBuffer payload) {
+            long seconds = Long.reverseBytes(payload.getLong());
+            int nanos = 0;
+            if (payload.hasRemaining()) {
+                nanos = Integer.reverseBytes(payload.getInt());
+                payload.position(payload.limit());
+            }
+            return toDate(seconds, nanos);
+        }
+
+        /**
+         * @param value  value being encoded
+         * @param millis milliseconds within the second
+         * @return nanoseconds within the second
+         */
+        protected int getNanos(Date value, long millis) {
+            return (int) millis * 1000000;
+        }
+
+        protected Date toDate(long seconds, int nanos) {
+            return new Date(seconds * 1000 + nanos / 1000000);
+        }
+    }
+}
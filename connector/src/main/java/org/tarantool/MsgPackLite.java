@@ -0,0 +1,1291 @@
+package org.tarantool;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.tarantool.codec.CodecArgument;
+
+/**
+ * forked from https://bitbucket.org/sirbrialliance/msgpack-java-lite
+ */
+public class MsgPackLite {
+
+    public static final MsgPackLite INSTANCE = new MsgPackLite();
+
+    protected final int MAX_4BIT = 0xf;
+    protected final int MAX_5BIT = 0x1f;
+    protected final int MAX_7BIT = 0x7f;
+    protected final int MAX_8BIT = 0xff;
+    protected final int MAX_15BIT = 0x7fff;
+    protected final int MAX_16BIT = 0xffff;
+    protected final int MAX_31BIT = 0x7fffffff;
+    protected final long MAX_32BIT = 0xffffffffL;
+
+    //these values are from http://wiki.msgpack.org/display/MSGPACK/Format+specification
+    protected final byte MP_NULL = (byte) 0xc0;
+    protected final byte MP_FALSE = (byte) 0xc2;
+    protected final byte MP_TRUE = (byte) 0xc3;
+    protected final byte MP_BIN8 = (byte) 0xc4;
+    protected final byte MP_BIN16 = (byte) 0xc5;
+    protected final byte MP_BIN32 = (byte) 0xc6;
+
+    protected final byte MP_FLOAT = (byte) 0xca;
+    protected final byte MP_DOUBLE = (byte) 0xcb;
+
+    protected final byte MP_FIXNUM = (byte) 0x00;//last 7 bits is value
+    protected final byte MP_UINT8 = (byte) 0xcc;
+    protected final byte MP_UINT16 = (byte) 0xcd;
+    protected final byte MP_UINT32 = (byte) 0xce;
+    protected final byte MP_UINT64 = (byte) 0xcf;
+
+    protected final byte MP_NEGATIVE_FIXNUM = (byte) 0xe0;//last 5 bits is value
+    protected final int MP_NEGATIVE_FIXNUM_INT = 0xe0;//  /me wishes for signed numbers.
+    protected final byte MP_INT8 = (byte) 0xd0;
+    protected final byte MP_INT16 = (byte) 0xd1;
+    protected final byte MP_INT32 = (byte) 0xd2;
+    protected final byte MP_INT64 = (byte) 0xd3;
+
+    protected final byte MP_FIXARRAY = (byte) 0x90;//last 4 bits is size
+    protected final int MP_FIXARRAY_INT = 0x90;
+    protected final byte MP_ARRAY16 = (byte) 0xdc;
+    protected final byte MP_ARRAY32 = (byte) 0xdd;
+
+    protected final byte MP_FIXMAP = (byte) 0x80;//last 4 bits is size
+    protected final int MP_FIXMAP_INT = 0x80;
+    protected final byte MP_MAP16 = (byte) 0xde;
+    protected final byte MP_MAP32 = (byte) 0xdf;
+
+    protected final byte MP_FIXSTR = (byte) 0xa0;//last 5 bits is size
+    protected final int MP_FIXSTR_INT = 0xa0;
+    protected final byte MP_STR8 = (byte) 0xd9;
+    protected final byte MP_STR16 = (byte) 0xda;
+    protected final byte MP_STR32 = (byte) 0xdb;
+
+    protected final byte MP_FIXEXT1 = (byte) 0xd4;
+    protected final byte MP_FIXEXT2 = (byte) 0xd5;
+    protected final byte MP_FIXEXT4 = (byte) 0xd6;
+    protected final byte MP_FIXEXT8 = (byte) 0xd7;
+    protected final byte MP_FIXEXT16 = (byte) 0xd8;
+    protected final byte MP_EXT8 = (byte) 0xc7;
+    protected final byte MP_EXT16 = (byte) 0xc8;
+    protected final byte MP_EXT32 = (byte) 0xc9;
+
+    protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+    protected final Map<Class<?>, MsgPackExtension<?>> extensions = new ConcurrentHashMap<Class<?>, MsgPackExtension<?>>();
+    protected volatile MsgPackExtension<?>[] extensionTypes = new MsgPackExtension<?>[256];
+    protected volatile StringCache stringCache;
+
+    public MsgPackLite() {
+        registerExtension(BigDecimal.class, MsgPackExtensions.DECIMAL);
+        registerExtension(UUID.class, MsgPackExtensions.UUID);
+        registerExtension(Date.class, MsgPackExtensions.DATETIME);
+    }
+
+    /**
+     * Maps a class to a MsgPack extension type.
+     *
+     * Instances of the class and its subclasses are packed with the extension, unless the class
+     * has a native MsgPack representation such as strings, collections and boxed primitives.
+     * Values of the extension type are unpacked with the extension registered for it last.
+     * Values of unregistered extension types are unpacked as {@link RawMsgPack}.
+     *
+     * @param type      class of the values to pack with the extension
+     * @param extension extension codec
+     */
+    public synchronized <T> void registerExtension(Class<T> type, MsgPackExtension<? super T> extension) {
+        extensions.put(type, extension);
+        MsgPackExtension<?>[] types = extensionTypes.clone();
+        types[extension.getType() & 0xff] = extension;
+        extensionTypes = types;
+    }
+
+    /**
+     * Enables reusing decoded short strings, see {@link StringCache}.
+     * The cache is shared by everything that unpacks with this instance.
+     *
+     * @param stringCache cache to use or {@code null} to decode every string anew
+     */
+    public void setStringCache(StringCache stringCache) {
+        this.stringCache = stringCache;
+    }
+
+    /**
+     * @return extension registered for the class or its closest superclass, {@code null} if there is none
+     */
+    protected MsgPackExtension<Object> findExtension(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            MsgPackExtension<?> extension = extensions.get(c);
+            if (extension != null) {
+                return (MsgPackExtension<Object>) extension;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Packs the item starting at the current position of the buffer.
+     * Unlike {@link #pack(Object, OutputStream)} it writes bytes straight into the buffer
+     * and does not allocate anything per element. When the buffer runs out of room it is
+     * replaced with a larger copy, so the caller must continue with the returned instance.
+     *
+     * @param item   item to pack
+     * @param buffer destination buffer in write mode
+     * @return buffer holding the packed item, either the given one or its grown copy
+     */
+    public ByteBuffer pack(Object item, ByteBuffer buffer) {
+        // the most common types go first, interface checks such as Callable are comparatively slow
+        if (item instanceof String) {
+            buffer = packString((String) item, buffer);
+        } else if (item instanceof Integer || item instanceof Long || item instanceof Short || item instanceof Byte) {
+            buffer = packLong(((Number) item).longValue(), buffer);
+        } else if (item == null) {
+            buffer = ensureCapacity(buffer, 1);
+            buffer.put(MP_NULL);
+        } else if (item instanceof Key) {
+            buffer = packLong(((Key) item).getId(), buffer);
+        } else if (item instanceof RawMsgPack) {
+            RawMsgPack raw = (RawMsgPack) item;
+            buffer = ensureCapacity(buffer, raw.getLength());
+            buffer.put(raw.getBytes(), raw.getOffset(), raw.getLength());
+        } else if (item instanceof CodecArgument) {
+            buffer = ((CodecArgument<?>) item).encode(this, buffer);
+        } else if (item instanceof Boolean) {
+            buffer = ensureCapacity(buffer, 1);
+            buffer.put(((Boolean) item).booleanValue() ? MP_TRUE : MP_FALSE);
+        } else if (item instanceof Float) {
+            buffer = ensureCapacity(buffer, 5);
+            buffer.put(MP_FLOAT);
+            buffer.putFloat((Float) item);
+        } else if (item instanceof Double) {
+            buffer = ensureCapacity(buffer, 9);
+            buffer.put(MP_DOUBLE);
+            buffer.putDouble((Double) item);
+        } else if (item instanceof Code) {
+            buffer = packLong(((Code) item).getId(), buffer);
+        } else if (item instanceof byte[]) {
+            byte[] data = (byte[]) item;
+            buffer = packBinHeader(data.length, buffer);
+            buffer = ensureCapacity(buffer, data.length);
+            buffer.put(data);
+        } else if (item instanceof ByteBuffer) {
+            ByteBuffer data = (ByteBuffer) item;
+            int length = data.remaining();
+            buffer = packBinHeader(length, buffer);
+            buffer = ensureCapacity(buffer, length);
+            if (data.hasArray()) {
+                buffer.put(data.array(), data.arrayOffset() + data.position(), length);
+            } else {
+                buffer.put(data.duplicate());
+            }
+        } else if (item instanceof List) {
+            List list = ((List) item);
+            buffer = packArrayHeader(list.size(), buffer);
+            if (list instanceof RandomAccess) {
+                for (int i = 0, e = list.size(); i < e; i++) {
+                    buffer = pack(list.get(i), buffer);
+                }
+            } else {
+                for (Object element : list) {
+                    buffer = pack(element, buffer);
+                }
+            }
+        } else if (item instanceof Object[]) {
+            Object[] array = (Object[]) item;
+            buffer = packArrayHeader(array.length, buffer);
+            for (Object element : array) {
+                buffer = pack(element, buffer);
+            }
+        } else if (item instanceof int[]) {
+            int[] array = (int[]) item;
+            buffer = packArrayHeader(array.length, buffer);
+            for (int element : array) {
+                buffer = packLong(element, buffer);
+            }
+        } else if (item instanceof long[]) {
+            long[] array = (long[]) item;
+            buffer = packArrayHeader(array.length, buffer);
+            for (long element : array) {
+                buffer = packLong(element, buffer);
+            }
+        } else if (item instanceof double[]) {
+            double[] array = (double[]) item;
+            buffer = packArrayHeader(array.length, buffer);
+            buffer = ensureCapacity(buffer, array.length * 9);
+            for (double element : array) {
+                buffer.put(MP_DOUBLE);
+                buffer.putDouble(element);
+            }
+        } else if (item.getClass().isArray()) {
+            int length = Array.getLength(item);
+            buffer = packArrayHeader(length, buffer);
+            for (int i = 0; i < length; i++) {
+                buffer = pack(Array.get(item, i), buffer);
+            }
+        } else if (item instanceof Map) {
+            Map<Object, Object> map = (Map<Object, Object>) item;
+            buffer = packMapHeader(map.size(), buffer);
+            for (Map.Entry<Object, Object> kvp : map.entrySet()) {
+                buffer = pack(kvp.getKey(), buffer);
+                buffer = pack(kvp.getValue(), buffer);
+            }
+        } else if (item instanceof Callable) {
+            Object value;
+            try {
+                value = ((Callable) item).call();
+            } catch (Exception e) {
+                throw new IllegalArgumentException(e);
+            }
+            buffer = pack(value, buffer);
+        } else {
+            MsgPackExtension<Object> extension = findExtension(item.getClass());
+            if (extension != null) {
+                byte[] payload = extension.encode(item);
+                buffer = packExtHeader(extension.getType(), payload.length, buffer);
+                buffer = ensureCapacity(buffer, payload.length);
+                buffer.put(payload);
+            } else if (item instanceof Number) {
+                buffer = packLong(((Number) item).longValue(), buffer);
+            } else {
+                throw new IllegalArgumentException("Cannot msgpack object of type " + item.getClass().getCanonicalName());
+            }
+        }
+        return buffer;
+    }
+
+    public ByteBuffer packLong(long value, ByteBuffer buffer) {
+        buffer = ensureCapacity(buffer, 9);
+        if (value >= 0) {
+            if (value <= MAX_7BIT) {
+                buffer.put((byte) (value | MP_FIXNUM));
+            } else if (value <= MAX_8BIT) {
+                buffer.put(MP_UINT8);
+                buffer.put((byte) value);
+            } else if (value <= MAX_16BIT) {
+                buffer.put(MP_UINT16);
+                buffer.putShort((short) value);
+            } else if (value <= MAX_32BIT) {
+                buffer.put(MP_UINT32);
+                buffer.putInt((int) value);
+            } else {
+                buffer.put(MP_UINT64);
+                buffer.putLong(value);
+            }
+        } else {
+            if (value >= -(MAX_5BIT + 1)) {
+                buffer.put((byte) value);
+            } else if (value >= -(MAX_7BIT + 1)) {
+                buffer.put(MP_INT8);
+                buffer.put((byte) value);
+            } else if (value >= -(MAX_15BIT + 1)) {
+                buffer.put(MP_INT16);
+                buffer.putShort((short) value);
+            } else if (value >= -(MAX_31BIT + 1)) {
+                buffer.put(MP_INT32);
+                buffer.putInt((int) value);
+            } else {
+                buffer.put(MP_INT64);
+                buffer.putLong(value);
+            }
+        }
+        return buffer;
+    }
+
+    public ByteBuffer packArrayHeader(int length, ByteBuffer buffer) {
+        buffer = ensureCapacity(buffer, 5);
+        if (length <= MAX_4BIT) {
+            buffer.put((byte) (length | MP_FIXARRAY));
+        } else if (length <= MAX_16BIT) {
+            buffer.put(MP_ARRAY16);
+            buffer.putShort((short) length);
+        } else {
+            buffer.put(MP_ARRAY32);
+            buffer.putInt(length);
+        }
+        return buffer;
+    }
+
+    public ByteBuffer packMapHeader(int size, ByteBuffer buffer) {
+        buffer = ensureCapacity(buffer, 5);
+        if (size <= MAX_4BIT) {
+            buffer.put((byte) (size | MP_FIXMAP));
+        } else if (size <= MAX_16BIT) {
+            buffer.put(MP_MAP16);
+            buffer.putShort((short) size);
+        } else {
+            buffer.put(MP_MAP32);
+            buffer.putInt(size);
+        }
+        return buffer;
+    }
+
+    protected ByteBuffer packStrHeader(int length, ByteBuffer buffer) {
+        buffer = ensureCapacity(buffer, 5);
+        if (length <= MAX_5BIT) {
+            buffer.put((byte) (length | MP_FIXSTR));
+        } else if (length <= MAX_8BIT) {
+            buffer.put(MP_STR8);
+            buffer.put((byte) length);
+        } else if (length <= MAX_16BIT) {
+            buffer.put(MP_STR16);
+            buffer.putShort((short) length);
+        } else {
+            buffer.put(MP_STR32);
+            buffer.putInt(length);
+        }
+        return buffer;
+    }
+
+    /**
+     * Packs a string writing ASCII characters straight into the buffer.
+     * Only strings with other characters are converted to a UTF-8 byte array first.
+     */
+    protected ByteBuffer packString(String str, ByteBuffer buffer) {
+        int length = str.length();
+        buffer = ensureCapacity(buffer, length + 5);
+        int start = buffer.position();
+        buffer = packStrHeader(length, buffer);
+        int position = buffer.position();
+        if (putAscii(str, buffer)) {
+            buffer.position(position + length);
+            return buffer;
+        }
+        buffer.position(start);
+        byte[] data = str.getBytes(UTF8);
+        buffer = packStrHeader(data.length, buffer);
+        buffer = ensureCapacity(buffer, data.length);
+        buffer.put(data);
+        return buffer;
+    }
+
+    /**
+     * Copies the string at the current position without moving it.
+     *
+     * @return {@code false} if the string has a non-ASCII character, the buffer content is undefined then
+     */
+    protected boolean putAscii(String str, ByteBuffer buffer) {
+        int length = str.length();
+        if (buffer.hasArray()) {
+            byte[] array = buffer.array();
+            int offset = buffer.arrayOffset() + buffer.position();
+            for (int i = 0; i < length; i++) {
+                char c = str.charAt(i);
+                if (c > MAX_7BIT) {
+                    return false;
+                }
+                array[offset + i] = (byte) c;
+            }
+        } else {
+            int offset = buffer.position();
+            for (int i = 0; i < length; i++) {
+                char c = str.charAt(i);
+                if (c > MAX_7BIT) {
+                    return false;
+                }
+                buffer.put(offset + i, (byte) c);
+            }
+        }
+        return true;
+    }
+
+    protected ByteBuffer packBinHeader(int length, ByteBuffer buffer) {
+        buffer = ensureCapacity(buffer, 5);
+        if (length <= MAX_8BIT) {
+            buffer.put(MP_BIN8);
+            buffer.put((byte) length);
+        } else if (length <= MAX_16BIT) {
+            buffer.put(MP_BIN16);
+            buffer.putShort((short) length);
+        } else {
+            buffer.put(MP_BIN32);
+            buffer.putInt(length);
+        }
+        return buffer;
+    }
+
+    /**
+     * Packs the header of an extension value including its type.
+     *
+     * @param type   extension type
+     * @param length length of the payload which follows the header
+     * @param buffer destination buffer in write mode
+     * @return buffer holding the header, either the given one or its grown copy
+     */
+    public ByteBuffer packExtHeader(byte type, int length, ByteBuffer buffer) {
+        buffer = ensureCapacity(buffer, 6);
+        switch (length) {
+        case 1:
+            buffer.put(MP_FIXEXT1);
+            break;
+        case 2:
+            buffer.put(MP_FIXEXT2);
+            break;
+        case 4:
+            buffer.put(MP_FIXEXT4);
+            break;
+        case 8:
+            buffer.put(MP_FIXEXT8);
+            break;
+        case 16:
+            buffer.put(MP_FIXEXT16);
+            break;
+        default:
+            if (length <= MAX_8BIT) {
+                buffer.put(MP_EXT8);
+                buffer.put((byte) length);
+            } else if (length <= MAX_16BIT) {
+                buffer.put(MP_EXT16);
+                buffer.putShort((short) length);
+            } else {
+                buffer.put(MP_EXT32);
+                buffer.putInt(length);
+            }
+        }
+        buffer.put(type);
+        return buffer;
+    }
+
+    /**
+     * Makes sure the buffer has room for the given number of bytes.
+     *
+     * @param buffer   buffer in write mode
+     * @param required number of bytes about to be written
+     * @return the same buffer if it is large enough, otherwise a copy with at least twice the capacity
+     */
+    public static ByteBuffer ensureCapacity(ByteBuffer buffer, int required) {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + required);
+        ByteBuffer grown = buffer.isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    public void pack(Object item, OutputStream os) throws IOException {
+        if (item instanceof RawMsgPack) {
+            RawMsgPack raw = (RawMsgPack) item;
+            os.write(raw.getBytes(), raw.getOffset(), raw.getLength());
+            return;
+        }
+        if (item instanceof CodecArgument) {
+            ByteBuffer buffer = ((CodecArgument<?>) item).encode(this, ByteBuffer.allocate(64));
+            os.write(buffer.array(), 0, buffer.position());
+            return;
+        }
+        DataOutputStream out = new DataOutputStream(os);
+        if (item instanceof Callable) {
+            try {
+                item = ((Callable) item).call();
+            } catch (Exception e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+        if (item == null) {
+            out.write(MP_NULL);
+        } else if (item instanceof Boolean) {
+            out.write(((Boolean) item).booleanValue() ? MP_TRUE : MP_FALSE);
+        } else if (item instanceof Number && !(item instanceof Integer || item instanceof Long || item instanceof Short
+                || item instanceof Byte || item instanceof Float || item instanceof Double)
+                && findExtension(item.getClass()) != null) {
+            packExtension(findExtension(item.getClass()), item, out);
+        } else if (item instanceof Number || item instanceof Code) {
+            if (item instanceof Float) {
+                out.write(MP_FLOAT);
+                out.writeFloat((Float) item);
+            } else if (item instanceof Double) {
+                out.write(MP_DOUBLE);
+                out.writeDouble((Double) item);
+            } else {
+                packLong(item instanceof Code ? ((Code) item).getId() : ((Number) item).longValue(), out);
+            }
+        } else if (item instanceof String) {
+            byte[] data = ((String) item).getBytes(UTF8);
+            if (data.length <= MAX_5BIT) {
+                out.write(data.length | MP_FIXSTR);
+            } else if (data.length <= MAX_8BIT) {
+                out.write(MP_STR8);
+                out.writeByte(data.length);
+            } else if (data.length <= MAX_16BIT) {
+                out.write(MP_STR16);
+                out.writeShort(data.length);
+            } else {
+                out.write(MP_STR32);
+                out.writeInt(data.length);
+            }
+            out.write(data);
+        } else if (item instanceof byte[] || item instanceof ByteBuffer) {
+            byte[] data;
+            int offset = 0;
+            int length;
+            if (item instanceof byte[]) {
+                data = (byte[]) item;
+                length = data.length;
+            } else {
+                ByteBuffer bb = ((ByteBuffer) item);
+                length = bb.remaining();
+                if (bb.hasArray()) {
+                    data = bb.array();
+                    offset = bb.arrayOffset() + bb.position();
+                } else {
+                    data = new byte[length];
+                    bb.duplicate().get(data);
+                }
+            }
+            if (length <= MAX_8BIT) {
+                out.write(MP_BIN8);
+                out.writeByte(length);
+            } else if (length <= MAX_16BIT) {
+                out.write(MP_BIN16);
+                out.writeShort(length);
+            } else {
+                out.write(MP_BIN32);
+                out.writeInt(length);
+            }
+            out.write(data, offset, length);
+        } else if (item instanceof List || item.getClass().isArray()) {
+            int length = item instanceof List ? ((List) item).size() : Array.getLength(item);
+            if (length <= MAX_4BIT) {
+                out.write(length | MP_FIXARRAY);
+            } else if (length <= MAX_16BIT) {
+                out.write(MP_ARRAY16);
+                out.writeShort(length);
+            } else {
+                out.write(MP_ARRAY32);
+                out.writeInt(length);
+            }
+            if (item instanceof List) {
+                List list = ((List) item);
+                for (Object element : list) {
+                    pack(element, out);
+                }
+            } else if (item instanceof Object[]) {
+                for (Object element : (Object[]) item) {
+                    pack(element, out);
+                }
+            } else if (item instanceof int[]) {
+                for (int element : (int[]) item) {
+                    packLong(element, out);
+                }
+            } else if (item instanceof long[]) {
+                for (long element : (long[]) item) {
+                    packLong(element, out);
+                }
+            } else if (item instanceof double[]) {
+                for (double element : (double[]) item) {
+                    out.write(MP_DOUBLE);
+                    out.writeDouble(element);
+                }
+            } else {
+                for (int i = 0; i < length; i++) {
+                    pack(Array.get(item, i), out);
+                }
+            }
+        } else if (item instanceof Map) {
+            Map<Object, Object> map = (Map<Object, Object>) item;
+            if (map.size() <= MAX_4BIT) {
+                out.write(map.size() | MP_FIXMAP);
+            } else if (map.size() <= MAX_16BIT) {
+                out.write(MP_MAP16);
+                out.writeShort(map.size());
+            } else {
+                out.write(MP_MAP32);
+                out.writeInt(map.size());
+            }
+            for (Map.Entry<Object, Object> kvp : map.entrySet()) {
+                pack(kvp.getKey(), out);
+                pack(kvp.getValue(), out);
+            }
+        } else if (findExtension(item.getClass()) != null) {
+            packExtension(findExtension(item.getClass()), item, out);
+        } else {
+            throw new IllegalArgumentException("Cannot msgpack object of type " + item.getClass().getCanonicalName());
+        }
+    }
+
+    protected void packLong(long value, DataOutputStream out) throws IOException {
+        if (value >= 0) {
+            if (value <= MAX_7BIT) {
+                out.write((int) value | MP_FIXNUM);
+            } else if (value <= MAX_8BIT) {
+                out.write(MP_UINT8);
+                out.write((int) value);
+            } else if (value <= MAX_16BIT) {
+                out.write(MP_UINT16);
+                out.writeShort((int) value);
+            } else if (value <= MAX_32BIT) {
+                out.write(MP_UINT32);
+                out.writeInt((int) value);
+            } else {
+                out.write(MP_UINT64);
+                out.writeLong(value);
+            }
+        } else {
+            if (value >= -(MAX_5BIT + 1)) {
+                out.write((int) (value & 0xff));
+            } else if (value >= -(MAX_7BIT + 1)) {
+                out.write(MP_INT8);
+                out.write((int) value);
+            } else if (value >= -(MAX_15BIT + 1)) {
+                out.write(MP_INT16);
+                out.writeShort((int) value);
+            } else if (value >= -(MAX_31BIT + 1)) {
+                out.write(MP_INT32);
+                out.writeInt((int) value);
+            } else {
+                out.write(MP_INT64);
+                out.writeLong(value);
+            }
+        }
+    }
+
+    protected void packExtension(MsgPackExtension<Object> extension, Object item, OutputStream out) throws IOException {
+        byte[] payload = extension.encode(item);
+        ByteBuffer header = packExtHeader(extension.getType(), payload.length, ByteBuffer.allocate(6));
+        out.write(header.array(), 0, header.position());
+        out.write(payload);
+    }
+
+    public Object unpack(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(is);
+        int value = in.read();
+        if (value < 0) {
+            throw new IllegalArgumentException("No more input available when expecting a value");
+        }
+        switch ((byte) value) {
+        case MP_NULL:
+            return null;
+        case MP_FALSE:
+            return false;
+        case MP_TRUE:
+            return true;
+        case MP_FLOAT:
+            return in.readFloat();
+        case MP_DOUBLE:
+            return in.readDouble();
+        case MP_UINT8:
+            return in.read();//read single byte, return as int
+        case MP_UINT16:
+            return in.readShort() & MAX_16BIT;//read short, trick Java into treating it as unsigned, return int
+        case MP_UINT32:
+            return in.readInt() & MAX_32BIT;//read int, trick Java into treating it as unsigned, return long
+        case MP_UINT64: {
+            long v = in.readLong();
+            return v >= 0 ? v : toUnsignedBigInteger(v);
+        }
+        case MP_INT8:
+            return (byte) in.read();
+        case MP_INT16:
+            return in.readShort();
+        case MP_INT32:
+            return in.readInt();
+        case MP_INT64:
+            return in.readLong();
+        case MP_ARRAY16:
+            return unpackList(in.readShort() & MAX_16BIT, in);
+        case MP_ARRAY32:
+            return unpackList(in.readInt(), in);
+        case MP_MAP16:
+            return unpackMap(in.readShort() & MAX_16BIT, in);
+        case MP_MAP32:
+            return unpackMap(in.readInt(), in);
+        case MP_STR8:
+            return unpackStr(in.readByte() & MAX_8BIT, in);
+        case MP_STR16:
+            return unpackStr(in.readShort() & MAX_16BIT, in);
+        case MP_STR32:
+            return unpackStr(in.readInt(), in);
+        case MP_BIN8:
+            return unpackBin(in.readByte() & MAX_8BIT, in);
+        case MP_BIN16:
+            return unpackBin(in.readShort() & MAX_16BIT, in);
+        case MP_BIN32:
+            return unpackBin(in.readInt(), in);
+        case MP_FIXEXT1:
+            return unpackExt(1, in);
+        case MP_FIXEXT2:
+            return unpackExt(2, in);
+        case MP_FIXEXT4:
+            return unpackExt(4, in);
+        case MP_FIXEXT8:
+            return unpackExt(8, in);
+        case MP_FIXEXT16:
+            return unpackExt(16, in);
+        case MP_EXT8:
+            return unpackExt(in.readByte() & MAX_8BIT, in);
+        case MP_EXT16:
+            return unpackExt(in.readShort() & MAX_16BIT, in);
+        case MP_EXT32:
+            return unpackExt(in.readInt(), in);
+        }
+
+        if (value >= MP_NEGATIVE_FIXNUM_INT && value <= MP_NEGATIVE_FIXNUM_INT + MAX_5BIT) {
+            return (byte) value;
+        } else if (value >= MP_FIXARRAY_INT && value <= MP_FIXARRAY_INT + MAX_4BIT) {
+            return unpackList(value - MP_FIXARRAY_INT, in);
+        } else if (value >= MP_FIXMAP_INT && value <= MP_FIXMAP_INT + MAX_4BIT) {
+            return unpackMap(value - MP_FIXMAP_INT, in);
+        } else if (value >= MP_FIXSTR_INT && value <= MP_FIXSTR_INT + MAX_5BIT) {
+            return unpackStr(value - MP_FIXSTR_INT, in);
+        } else if (value <= MAX_7BIT) {//MP_FIXNUM - the value is value as an int
+            return value;
+        } else {
+            throw new IllegalArgumentException("Input contains invalid type value " + (byte) value);
+        }
+    }
+
+    protected List unpackList(int size, DataInputStream in) throws IOException {
+        if (size < 0) {
+            throw new IllegalArgumentException("Array to unpack too large for Java (more than 2^31 elements)!");
+        }
+        List ret = new ArrayList(size);
+        for (int i = 0; i < size; ++i) {
+            ret.add(unpack(in));
+        }
+        return ret;
+    }
+
+    protected Map unpackMap(int size, DataInputStream in) throws IOException {
+        if (size < 0) {
+            throw new IllegalArgumentException("Map to unpack too large for Java (more than 2^31 elements)!");
+        }
+        Map ret = new HashMap(size);
+        for (int i = 0; i < size; ++i) {
+            Object key = unpack(in);
+            Object value = unpack(in);
+            ret.put(key, value);
+        }
+        return ret;
+    }
+
+    protected Object unpackStr(int size, DataInputStream in) throws IOException {
+        if (size < 0) {
+            throw new IllegalArgumentException("byte[] to unpack too large for Java (more than 2^31 elements)!");
+        }
+
+        byte[] data = new byte[size];
+        in.readFully(data);
+        return decodeString(data, 0, size);
+    }
+
+    protected Object unpackBin(int size, DataInputStream in) throws IOException {
+        if (size < 0) {
+            throw new IllegalArgumentException("byte[] to unpack too large for Java (more than 2^31 elements)!");
+        }
+
+        byte[] data = new byte[size];
+        in.readFully(data);
+        return data;
+    }
+
+    protected Object unpackExt(int size, DataInputStream in) throws IOException {
+        if (size < 0) {
+            throw new IllegalArgumentException("Extension to unpack too large for Java (more than 2^31 bytes)!");
+        }
+        ByteBuffer buffer = packExtHeader(in.readByte(), size, ByteBuffer.allocate(size + 6));
+        in.readFully(buffer.array(), buffer.position(), size);
+        buffer.position(buffer.position() + size);
+        buffer.flip();
+        return unpack(buffer);
+    }
+
+    /**
+     * Unpacks the value starting at the current position of the buffer and moves the position past it.
+     * The buffer is read in place, so nothing but the decoded values is allocated.
+     *
+     * @param buffer buffer in read mode, usually holding a whole IPROTO frame
+     * @return unpacked value
+     */
+    public Object unpack(ByteBuffer buffer) {
+        return unpack(buffer, false);
+    }
+
+    /**
+     * Unpacks the value like {@link #unpack(ByteBuffer)}, optionally without copying binary values.
+     *
+     * @param buffer      buffer in read mode, usually holding a whole IPROTO frame
+     * @param binaryViews {@code true} to return binary values as read-only slices of the buffer
+     *                    rather than byte arrays, so they are only valid as long as the buffer content is
+     * @return unpacked value
+     */
+    public Object unpack(ByteBuffer buffer, boolean binaryViews) {
+        if (!buffer.hasRemaining()) {
+            throw new IllegalArgumentException("No more input available when expecting a value");
+        }
+        int start = buffer.position();
+        int value = buffer.get() & 0xff;
+        switch ((byte) value) {
+        case MP_NULL:
+            return null;
+        case MP_FALSE:
+            return false;
+        case MP_TRUE:
+            return true;
+        case MP_FLOAT:
+            return buffer.getFloat();
+        case MP_DOUBLE:
+            return buffer.getDouble();
+        case MP_UINT8:
+            return buffer.get() & MAX_8BIT;
+        case MP_UINT16:
+            return buffer.getShort() & MAX_16BIT;
+        case MP_UINT32:
+            return buffer.getInt() & MAX_32BIT;
+        case MP_UINT64: {
+            long v = buffer.getLong();
+            return v >= 0 ? v : toUnsignedBigInteger(v);
+        }
+        case MP_INT8:
+            return buffer.get();
+        case MP_INT16:
+            return buffer.getShort();
+        case MP_INT32:
+            return buffer.getInt();
+        case MP_INT64:
+            return buffer.getLong();
+        case MP_ARRAY16:
+            return unpackList(buffer.getShort() & MAX_16BIT, buffer, binaryViews);
+        case MP_ARRAY32:
+            return unpackList(buffer.getInt(), buffer, binaryViews);
+        case MP_MAP16:
+            return unpackMap(buffer.getShort() & MAX_16BIT, buffer, binaryViews);
+        case MP_MAP32:
+            return unpackMap(buffer.getInt(), buffer, binaryViews);
+        case MP_STR8:
+            return unpackStr(buffer.get() & MAX_8BIT, buffer);
+        case MP_STR16:
+            return unpackStr(buffer.getShort() & MAX_16BIT, buffer);
+        case MP_STR32:
+            return unpackStr(buffer.getInt(), buffer);
+        case MP_BIN8:
+            return unpackBin(buffer.get() & MAX_8BIT, buffer, binaryViews);
+        case MP_BIN16:
+            return unpackBin(buffer.getShort() & MAX_16BIT, buffer, binaryViews);
+        case MP_BIN32:
+            return unpackBin(buffer.getInt(), buffer, binaryViews);
+        case MP_FIXEXT1:
+            return unpackExt(start, 1, buffer);
+        case MP_FIXEXT2:
+            return unpackExt(start, 2, buffer);
+        case MP_FIXEXT4:
+            return unpackExt(start, 4, buffer);
+        case MP_FIXEXT8:
+            return unpackExt(start, 8, buffer);
+        case MP_FIXEXT16:
+            return unpackExt(start, 16, buffer);
+        case MP_EXT8:
+            return unpackExt(start, buffer.get() & MAX_8BIT, buffer);
+        case MP_EXT16:
+            return unpackExt(start, buffer.getShort() & MAX_16BIT, buffer);
+        case MP_EXT32:
+            return unpackExt(start, buffer.getInt(), buffer);
+        }
+
+        if (value >= MP_NEGATIVE_FIXNUM_INT && value <= MP_NEGATIVE_FIXNUM_INT + MAX_5BIT) {
+            return (byte) value;
+        } else if (value >= MP_FIXARRAY_INT && value <= MP_FIXARRAY_INT + MAX_4BIT) {
+            return unpackList(value - MP_FIXARRAY_INT, buffer, binaryViews);
+        } else if (value >= MP_FIXMAP_INT && value <= MP_FIXMAP_INT + MAX_4BIT) {
+            return unpackMap(value - MP_FIXMAP_INT, buffer, binaryViews);
+        } else if (value >= MP_FIXSTR_INT && value <= MP_FIXSTR_INT + MAX_5BIT) {
+            return unpackStr(value - MP_FIXSTR_INT, buffer);
+        } else if (value <= MAX_7BIT) {//MP_FIXNUM - the value is value as an int
+            return value;
+        } else {
+            throw new IllegalArgumentException("Input contains invalid type value " + (byte) value);
+        }
+    }
+
+    protected List unpackList(int size, ByteBuffer buffer) {
+        return unpackList(size, buffer, false);
+    }
+
+    protected List unpackList(int size, ByteBuffer buffer, boolean binaryViews) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Array to unpack too large for Java (more than 2^31 elements)!");
+        }
+        List ret = new ArrayList(size);
+        for (int i = 0; i < size; ++i) {
+            ret.add(unpack(buffer, binaryViews));
+        }
+        return ret;
+    }
+
+    protected Map unpackMap(int size, ByteBuffer buffer) {
+        return unpackMap(size, buffer, false);
+    }
+
+    protected Map unpackMap(int size, ByteBuffer buffer, boolean binaryViews) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Map to unpack too large for Java (more than 2^31 elements)!");
+        }
+        Map ret = new HashMap(size);
+        for (int i = 0; i < size; ++i) {
+            Object key = unpack(buffer, binaryViews);
+            Object value = unpack(buffer, binaryViews);
+            ret.put(key, value);
+        }
+        return ret;
+    }
+
+    protected Object unpackStr(int size, ByteBuffer buffer) {
+        if (size < 0) {
+            throw new IllegalArgumentException("byte[] to unpack too large for Java (more than 2^31 elements)!");
+        }
+        if (size > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        if (buffer.hasArray()) {
+            int position = buffer.position();
+            String str = decodeString(buffer.array(), buffer.arrayOffset() + position, size);
+            buffer.position(position + size);
+            return str;
+        }
+        byte[] data = new byte[size];
+        buffer.get(data);
+        return decodeString(data, 0, size);
+    }
+
+    /**
+     * Decodes UTF-8 bytes, taking short strings from the {@link StringCache} if there is one
+     * and copying ASCII without going through the charset decoder.
+     */
+    @SuppressWarnings("deprecation")
+    protected String decodeString(byte[] data, int offset, int length) {
+        StringCache cache = stringCache;
+        if (cache != null && length <= cache.getMaxLength()) {
+            String str = cache.get(data, offset, length);
+            if (str != null) {
+                return str;
+            }
+        }
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (data[i] < 0) {
+                return new String(data, offset, length, UTF8);
+            }
+        }
+        return new String(data, 0, offset, length);
+    }
+
+    protected Object unpackBin(int size, ByteBuffer buffer) {
+        if (size < 0) {
+            throw new IllegalArgumentException("byte[] to unpack too large for Java (more than 2^31 elements)!");
+        }
+        byte[] data = new byte[size];
+        buffer.get(data);
+        return data;
+    }
+
+    protected Object unpackBin(int size, ByteBuffer buffer, boolean binaryViews) {
+        if (!binaryViews) {
+            return unpackBin(size, buffer);
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("byte[] to unpack too large for Java (more than 2^31 elements)!");
+        }
+        if (size > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        view.limit(view.position() + size);
+        buffer.position(buffer.position() + size);
+        return view.slice();
+    }
+
+    /**
+     * @param start position of the ext header
+     * @param size  length of the payload
+     */
+    protected Object unpackExt(int start, int size, ByteBuffer buffer) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Extension to unpack too large for Java (more than 2^31 bytes)!");
+        }
+        MsgPackExtension<?> extension = extensionTypes[buffer.get() & 0xff];
+        if (size > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        int end = buffer.position() + size;
+        if (extension == null) {
+            byte[] data = new byte[end - start];
+            buffer.position(start);
+            buffer.get(data);
+            return new RawMsgPack(data);
+        }
+        int limit = buffer.limit();
+        buffer.limit(end);
+        try {
+            return extension.decode(buffer);
+        } finally {
+            buffer.limit(limit);
+            buffer.position(end);
+        }
+    }
+
+    /**
+     * Moves the position of the buffer past the next value without decoding it.
+     *
+     * @param buffer buffer in read mode
+     */
+    public void skip(ByteBuffer buffer) {
+        int count = 1;
+        while (count-- > 0) {
+            int value = buffer.get() & 0xff;
+            switch ((byte) value) {
+            case MP_NULL:
+            case MP_FALSE:
+            case MP_TRUE:
+                break;
+            case MP_UINT8:
+            case MP_INT8:
+                skipBytes(buffer, 1);
+                break;
+            case MP_UINT16:
+            case MP_INT16:
+                skipBytes(buffer, 2);
+                break;
+            case MP_FLOAT:
+            case MP_UINT32:
+            case MP_INT32:
+                skipBytes(buffer, 4);
+                break;
+            case MP_DOUBLE:
+            case MP_UINT64:
+            case MP_INT64:
+                skipBytes(buffer, 8);
+                break;
+            case MP_ARRAY16:
+                count += buffer.getShort() & MAX_16BIT;
+                break;
+            case MP_ARRAY32:
+                count += buffer.getInt();
+                break;
+            case MP_MAP16:
+                count += (buffer.getShort() & MAX_16BIT) * 2;
+                break;
+            case MP_MAP32:
+                count += buffer.getInt() * 2;
+                break;
+            case MP_STR8:
+            case MP_BIN8:
+                skipBytes(buffer, buffer.get() & MAX_8BIT);
+                break;
+            case MP_STR16:
+            case MP_BIN16:
+                skipBytes(buffer, buffer.getShort() & MAX_16BIT);
+                break;
+            case MP_STR32:
+            case MP_BIN32:
+                skipBytes(buffer, buffer.getInt());
+                break;
+            case MP_FIXEXT1:
+                skipBytes(buffer, 2);
+                break;
+            case MP_FIXEXT2:
+                skipBytes(buffer, 3);
+                break;
+            case MP_FIXEXT4:
+                skipBytes(buffer, 5);
+                break;
+            case MP_FIXEXT8:
+                skipBytes(buffer, 9);
+                break;
+            case MP_FIXEXT16:
+                skipBytes(buffer, 17);
+                break;
+            case MP_EXT8:
+                skipBytes(buffer, (buffer.get() & MAX_8BIT) + 1);
+                break;
+            case MP_EXT16:
+                skipBytes(buffer, (buffer.getShort() & MAX_16BIT) + 1);
+                break;
+            case MP_EXT32:
+                skipBytes(buffer, buffer.getInt() + 1);
+                break;
+            default:
+                if (value >= MP_FIXARRAY_INT && value <= MP_FIXARRAY_INT + MAX_4BIT) {
+                    count += value - MP_FIXARRAY_INT;
+                } else if (value >= MP_FIXMAP_INT && value <= MP_FIXMAP_INT + MAX_4BIT) {
+                    count += (value - MP_FIXMAP_INT) * 2;
+                } else if (value >= MP_FIXSTR_INT && value <= MP_FIXSTR_INT + MAX_5BIT) {
+                    skipBytes(buffer, value - MP_FIXSTR_INT);
+                } else if (value > MAX_7BIT && value < MP_NEGATIVE_FIXNUM_INT) {
+                    throw new IllegalArgumentException("Input contains invalid type value " + (byte) value);
+                }
+            }
+            if (count < 0) {
+                throw new IllegalArgumentException("Container to skip too large for Java (more than 2^31 elements)!");
+            }
+        }
+    }
+
+    protected void skipBytes(ByteBuffer buffer, int size) {
+        if (size < 0 || size > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        buffer.position(buffer.position() + size);
+    }
+
+    /**
+     * @return {@code true} if the next value in the buffer is an array
+     */
+    public boolean isArray(ByteBuffer buffer) {
+        int value = buffer.get(buffer.position()) & 0xff;
+        return (value >= MP_FIXARRAY_INT && value <= MP_FIXARRAY_INT + MAX_4BIT) ||
+                value == (MP_ARRAY16 & 0xff) || value == (MP_ARRAY32 & 0xff);
+    }
+
+    /**
+     * Consumes the next value if it is nil.
+     *
+     * @return {@code true} if the value was nil, {@code false} if the buffer is left untouched
+     */
+    public boolean unpackNil(ByteBuffer buffer) {
+        if (buffer.get(buffer.position()) == MP_NULL) {
+            buffer.get();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Unpacks the header of an array, leaving the buffer positioned at its first element.
+     *
+     * @return number of elements in the array
+     */
+    public int unpackArrayHeader(ByteBuffer buffer) {
+        int value = buffer.get() & 0xff;
+        if (value >= MP_FIXARRAY_INT && value <= MP_FIXARRAY_INT + MAX_4BIT) {
+            return value - MP_FIXARRAY_INT;
+        } else if (value == (MP_ARRAY16 & 0xff)) {
+            return buffer.getShort() & MAX_16BIT;
+        } else if (value == (MP_ARRAY32 & 0xff)) {
+            return buffer.getInt();
+        }
+        throw new IllegalArgumentException("Expected array but input contains type value " + (byte) value);
+    }
+
+    /**
+     * Unpacks the header of a map, leaving the buffer positioned at its first key.
+     *
+     * @return number of key-value pairs in the map
+     */
+    public int unpackMapHeader(ByteBuffer buffer) {
+        int value = buffer.get() & 0xff;
+        if (value >= MP_FIXMAP_INT && value <= MP_FIXMAP_INT + MAX_4BIT) {
+            return value - MP_FIXMAP_INT;
+        } else if (value == (MP_MAP16 & 0xff)) {
+            return buffer.getShort() & MAX_16BIT;
+        } else if (value == (MP_MAP32 & 0xff)) {
+            return buffer.getInt();
+        }
+        throw new IllegalArgumentException("Expected map but input contains type value " + (byte) value);
+    }
+
+    /**
+     * Unpacks an integer without boxing it.
+     * Unsigned 64-bit values above {@link Long#MAX_VALUE} wrap around to negative numbers.
+     */
+    public long unpackLong(ByteBuffer buffer) {
+        int value = buffer.get() & 0xff;
+        switch ((byte) value) {
+        case MP_UINT8:
+            return buffer.get() & MAX_8BIT;
+        case MP_UINT16:
+            return buffer.getShort() & MAX_16BIT;
+        case MP_UINT32:
+            return buffer.getInt() & MAX_32BIT;
+        case MP_UINT64:
+        case MP_INT64:
+            return buffer.getLong();
+        case MP_INT8:
+            return buffer.get();
+        case MP_INT16:
+            return buffer.getShort();
+        case MP_INT32:
+            return buffer.getInt();
+        }
+        if (value <= MAX_7BIT || value >= MP_NEGATIVE_FIXNUM_INT) {
+            return (byte) value;
+        }
+        throw new IllegalArgumentException("Expected integer but input contains type value " + (byte) value);
+    }
+
+    /**
+     * Unpacks a string or {@code null}.
+     */
+    public String unpackString(ByteBuffer buffer) {
+        int value = buffer.get() & 0xff;
+        switch ((byte) value) {
+        case MP_NULL:
+            return null;
+        case MP_STR8:
+            return (String) unpackStr(buffer.get() & MAX_8BIT, buffer);
+        case MP_STR16:
+            return (String) unpackStr(buffer.getShort() & MAX_16BIT, buffer);
+        case MP_STR32:
+            return (String) unpackStr(buffer.getInt(), buffer);
+        }
+        if (value >= MP_FIXSTR_INT && value <= MP_FIXSTR_INT + MAX_5BIT) {
+            return (String) unpackStr(value - MP_FIXSTR_INT, buffer);
+        }
+        throw new IllegalArgumentException("Expected string but input contains type value " + (byte) value);
+    }
+
+    /**
+     * Unpacks the raw bytes of a binary or string value, or {@code null}.
+     */
+    public byte[] unpackBytes(ByteBuffer buffer) {
+        int value = buffer.get() & 0xff;
+        int size;
+        switch ((byte) value) {
+        case MP_NULL:
+            return null;
+        case MP_STR8:
+        case MP_BIN8:
+            size = buffer.get() & MAX_8BIT;
+            break;
+        case MP_STR16:
+        case MP_BIN16:
+            size = buffer.getShort() & MAX_16BIT;
+            break;
+        case MP_STR32:
+        case MP_BIN32:
+            size = buffer.getInt();
+            break;
+        default:
+            if (value < MP_FIXSTR_INT || value > MP_FIXSTR_INT + MAX_5BIT) {
+                throw new IllegalArgumentException("Expected binary but input contains type value " + (byte) value);
+            }
+            size = value - MP_FIXSTR_INT;
+        }
+        return (byte[]) unpackBin(size, buffer);
+    }
+
+    protected BigInteger toUnsignedBigInteger(long value) {
+        byte[] bytes = new byte[9];
+        for (int i = 8; i > 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return new BigInteger(bytes);
+    }
+}
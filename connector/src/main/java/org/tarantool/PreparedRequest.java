@@ -0,0 +1,110 @@
+package org.tarantool;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Request which has everything but the sync id and one argument encoded in advance.
+ *
+ * The packet template holds the size prefix, the header with a fixed width sync id
+ * and the constant part of the body. Executing the request copies the template,
+ * patches the sync id and encodes only the argument.
+ *
+ * @see TarantoolClientImpl#prepareSelect(int, int, int, int, Iterator)
+ */
+public class PreparedRequest {
+    protected final TarantoolClientImpl client;
+    protected final MsgPackLite msgPackLite;
+    protected final Code code;
+    protected final Key argumentKey;
+    protected final Object[] constants;
+    protected final byte[] template;
+    protected final int syncOffset;
+
+    /**
+     * @param client      client to execute the request with
+     * @param msgPackLite codec to encode the template and arguments with
+     * @param code        request code
+     * @param argumentKey body key of the argument supplied on every execution
+     * @param constants   body keys and values which are the same for every execution
+     */
+    public PreparedRequest(TarantoolClientImpl client, MsgPackLite msgPackLite, Code code, Key argumentKey,
+                           Object... constants) {
+        this.client = client;
+        this.msgPackLite = msgPackLite;
+        this.code = code;
+        this.argumentKey = argumentKey;
+        this.constants = constants;
+
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.position(5);
+        buffer = msgPackLite.packMapHeader(2, buffer);
+        buffer = msgPackLite.packLong(Key.CODE.getId(), buffer);
+        buffer = msgPackLite.packLong(code.getId(), buffer);
+        buffer = msgPackLite.packLong(Key.SYNC.getId(), buffer);
+        buffer = MsgPackLite.ensureCapacity(buffer, 9);
+        buffer.put((byte) 0xcf);
+        this.syncOffset = buffer.position();
+        buffer.putLong(0);
+        buffer = msgPackLite.packMapHeader(constants.length / 2 + 1, buffer);
+        for (int i = 0; i < constants.length; i += 2) {
+            buffer = msgPackLite.packLong(((Key) constants[i]).getId(), buffer);
+            buffer = msgPackLite.pack(constants[i + 1], buffer);
+        }
+        buffer = msgPackLite.packLong(argumentKey.getId(), buffer);
+        buffer.put(0, (byte) 0xce);
+        this.template = Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    public Future<List<?>> async(Object argument) {
+        return (Future<List<?>>) client.exec(this, argument);
+    }
+
+    public List<?> sync(Object argument) {
+        return client.syncGet(async(argument));
+    }
+
+    /**
+     * Builds the packet for a single execution in a pooled request buffer of the client,
+     * which the caller should {@link TarantoolBase#releaseRequestBuffer(ByteBuffer) release}.
+     *
+     * @param sync     sync id of the request
+     * @param argument value for {@link #argumentKey}
+     * @return buffer in read mode holding the whole packet
+     */
+    protected ByteBuffer createPacket(long sync, Object argument) {
+        return createPacket(client.acquireRequestBuffer(), sync, argument);
+    }
+
+    /**
+     * Builds the packet for a single execution in the given buffer, growing it when the packet does not fit.
+     *
+     * @return buffer in read mode holding the whole packet, either the given one or its grown copy
+     */
+    protected ByteBuffer createPacket(ByteBuffer buffer, long sync, Object argument) {
+        buffer.clear();
+        buffer = MsgPackLite.ensureCapacity(buffer, template.length);
+        buffer.put(template);
+        buffer.putLong(syncOffset, sync);
+        buffer = msgPackLite.pack(argument, buffer);
+        buffer.flip();
+        buffer.putInt(1, buffer.remaining() - 5);
+        return buffer;
+    }
+
+    public Code getCode() {
+        return code;
+    }
+
+    /**
+     * @return arguments equivalent to this request for {@link AbstractTarantoolOps#exec(Code, Object...)}
+     */
+    public Object[] getArgs(Object argument) {
+        Object[] args = Arrays.copyOf(constants, constants.length + 2);
+        args[constants.length] = argumentKey;
+        args[constants.length + 1] = argument;
+        return args;
+    }
+}
@@ -0,0 +1,96 @@
+package org.tarantool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Already encoded MsgPack value.
+ *
+ * Passed as an argument it is copied into the request verbatim. Returned as a result
+ * it holds the undecoded DATA of the response, see {@link TarantoolClientImpl#rawAsyncOps()}.
+ */
+public class RawMsgPack {
+    /**
+     * Wraps the DATA of a response without decoding it.
+     */
+    public static final DataDecoder<RawMsgPack> DECODER = new DataDecoder<RawMsgPack>() {
+        @Override
+        public RawMsgPack decode(MsgPackLite msgPackLite, ByteBuffer frame) {
+            int start = frame.position();
+            msgPackLite.skip(frame);
+            int length = frame.position() - start;
+            if (frame.hasArray()) {
+                return new RawMsgPack(frame.array(), frame.arrayOffset() + start, length);
+            }
+            byte[] bytes = new byte[length];
+            frame.position(start);
+            frame.get(bytes);
+            return new RawMsgPack(bytes);
+        }
+
+        @Override
+        public boolean keepsFrame() {
+            return true;
+        }
+    };
+
+    protected final byte[] bytes;
+    protected final int offset;
+    protected final int length;
+
+    /**
+     * @param bytes exactly one encoded MsgPack value
+     */
+    public RawMsgPack(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @param bytes  array holding the value
+     * @param offset offset of the value in the array
+     * @param length length of the encoded value
+     */
+    public RawMsgPack(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", size=" + bytes.length);
+        }
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @return array holding the value, which may be shared with a response frame
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return read-only buffer over the encoded value
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(bytes, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * @return copy of the encoded value
+     */
+    public byte[] toByteArray() {
+        byte[] copy = new byte[length];
+        System.arraycopy(bytes, offset, copy, 0, length);
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "RawMsgPack{length=" + length + '}';
+    }
+}
@@ -0,0 +1,14 @@
+package org.tarantool;
+
+/**
+ * Result holding resources of the connection which should be given back once the result is no longer used.
+ *
+ * @see TarantoolClientConfig#binaryViews
+ */
+public interface Releasable {
+    /**
+     * Gives the resources back, after which the result and the values obtained from it must not be accessed.
+     * Calling it more than once has no effect, and a result which is never released is simply garbage collected.
+     */
+    void release();
+}
@@ -0,0 +1,76 @@
+package org.tarantool;
+
+/**
+ * Bounded cache of short decoded ASCII strings.
+ *
+ * Repeated values such as field names, SQL column names or enum-like tuple fields are then
+ * decoded into the same {@link String} instance instead of a new one every time.
+ * The cache is direct-mapped: a value replaces whatever occupied its slot, so the memory it
+ * holds never exceeds {@code size} strings of at most {@code maxLength} characters.
+ * It is safe for concurrent use without locking since slots only ever hold complete immutable strings.
+ *
+ * @see MsgPackLite#setStringCache(StringCache)
+ */
+public class StringCache {
+    protected final String[] entries;
+    protected final int mask;
+    protected final int maxLength;
+
+    /**
+     * @param size      number of slots, rounded up to a power of two
+     * @param maxLength length in bytes of the longest string to cache
+     */
+    public StringCache(int size, int maxLength) {
+        if (size < 1 || size > 1 << 30) {
+            throw new IllegalArgumentException("Cache size should be in range 1.." + (1 << 30));
+        }
+        this.entries = new String[size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1];
+        this.mask = entries.length - 1;
+        this.maxLength = maxLength;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * @param data   array holding the encoded string
+     * @param offset offset of the string in the array
+     * @param length length of the encoded string in bytes
+     * @return cached or newly cached string, {@code null} if it is too long or not ASCII
+     */
+    @SuppressWarnings("deprecation")
+    public String get(byte[] data, int offset, int length) {
+        if (length > maxLength) {
+            return null;
+        }
+        int hash = length;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            byte b = data[i];
+            if (b < 0) {
+                return null;
+            }
+            hash = 31 * hash + b;
+        }
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        String cached = entries[slot];
+        if (cached != null && matches(cached, data, offset, length)) {
+            return cached;
+        }
+        String str = new String(data, 0, offset, length);
+        entries[slot] = str;
+        return str;
+    }
+
+    protected boolean matches(String str, byte[] data, int offset, int length) {
+        if (str.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) != data[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
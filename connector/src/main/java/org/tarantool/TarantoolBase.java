@@ -0,0 +1,453 @@
+package org.tarantool;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public abstract class TarantoolBase<Result> extends AbstractTarantoolOps<Integer, List<?>, Object, Result> {
+    protected static final String WELCOME = "Tarantool ";
+    protected static final int BODY_SLOTS = Key.SQL_INFO.getId() + 1;
+    protected static final int REQUEST_BUFFER_SLOTS = 16;
+    /**
+     * Size of the largest request buffer kept for reuse, the ones grown beyond it are left to the garbage collector
+     */
+    protected static final int MAX_POOLED_REQUEST_SIZE = 1 << 16;
+    protected String serverVersion;
+    /**
+     * Connection state
+     */
+    protected String salt;
+    protected MsgPackLite msgPackLite = MsgPackLite.INSTANCE;
+    protected AtomicLong syncId = new AtomicLong();
+    protected int initialRequestSize = 4096;
+    /**
+     * Buffers requests are encoded into, a thread takes the one of the slot its id falls into,
+     * so that threads rarely contend for a buffer and the number of them does not grow with threads
+     */
+    protected final AtomicReferenceArray<ByteBuffer> requestBuffers =
+            new AtomicReferenceArray<ByteBuffer>(REQUEST_BUFFER_SLOTS);
+    protected boolean lazyTuples;
+    protected boolean binaryViews;
+    /**
+     * Pool of arrays responses are read into or {@code null} to allocate a new one for every response
+     */
+    protected FramePool framePool;
+    /**
+     * Read properties
+     */
+    protected DataInputStream is;
+    protected CountInputStream cis;
+    protected long responseCode;
+    protected long responseSync;
+    protected long responseSchemaId;
+    /**
+     * Body of the last packet indexed by {@link Key#getId()}
+     */
+    protected Object[] body = new Object[BODY_SLOTS];
+
+    public TarantoolBase() {
+    }
+
+    public TarantoolBase(String username, String password, Socket socket) {
+        super();
+        InputStream in;
+        OutputStream out;
+        try {
+            in = socket.getInputStream();
+            out = socket.getOutputStream();
+        } catch (IOException e) {
+            throw new CommunicationException("Couldn't connect to tarantool", e);
+        }
+        handshake(username, password, in, out);
+    }
+
+    /**
+     * Connects over the streams of a connection other than a {@link Socket}, such as a Unix domain socket channel.
+     */
+    protected TarantoolBase(String username, String password, InputStream in, OutputStream out) {
+        super();
+        handshake(username, password, in, out);
+    }
+
+    private void handshake(String username, String password, InputStream in, OutputStream os) {
+        try {
+            this.is = new DataInputStream(cis = new CountInputStreamImpl(in));
+            byte[] bytes = new byte[64];
+            is.readFully(bytes);
+            String firstLine = new String(bytes);
+            if (!firstLine.startsWith(WELCOME)) {
+                close();
+                throw new CommunicationException("Welcome message should starts with tarantool but starts with '" + firstLine + "'", new IllegalStateException("Invalid welcome packet"));
+            }
+            serverVersion = firstLine.substring(WELCOME.length());
+            is.readFully(bytes);
+            this.salt = new String(bytes);
+            if (username != null && password != null) {
+                ByteBuffer authPacket = createAuthPacket(username, password);
+                os.write(authPacket.array(), 0, authPacket.remaining());
+                os.flush();
+                readPacket();
+                if (responseCode != 0) {
+                    throw serverError(responseCode, body[Key.ERROR.getId()]);
+                }
+            }
+        } catch (IOException e) {
+            try {
+                is.close();
+            } catch (IOException ignored) {
+
+            }
+            try {
+                cis.close();
+            } catch (IOException ignored) {
+
+            }
+            throw new CommunicationException("Couldn't connect to tarantool", e);
+        }
+    }
+
+
+    protected ByteBuffer createAuthPacket(String username, final String password) throws IOException {
+        final MessageDigest sha1;
+        try {
+            sha1 = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        List auth = new ArrayList(2);
+        auth.add("chap-sha1");
+
+        byte[] p = sha1.digest(password.getBytes());
+
+        sha1.reset();
+        byte[] p2 = sha1.digest(p);
+
+        sha1.reset();
+        sha1.update(Base64.decode(salt), 0, 20);
+        sha1.update(p2);
+        byte[] scramble = sha1.digest();
+        for (int i = 0, e = 20; i < e; i++) {
+            p[i] ^= scramble[i];
+        }
+        auth.add(p);
+        return createPacket(Code.AUTH, 0L, null, Key.USER_NAME, username, Key.TUPLE, auth);
+    }
+
+    /**
+     * Encodes the request into a pooled buffer, which the caller should {@link #releaseRequestBuffer(ByteBuffer) release}
+     * once the packet is written or copied.
+     */
+    protected ByteBuffer createPacket(Code code, Long syncId, Long schemaId, Object... args) throws IOException {
+        return createPacket(acquireRequestBuffer(), code, syncId, schemaId, args);
+    }
+
+    /**
+     * @return buffer of the slot of the current thread or a new one if the slot is empty
+     */
+    protected ByteBuffer acquireRequestBuffer() {
+        ByteBuffer buffer = requestBuffers.getAndSet(requestBufferSlot(), null);
+        return buffer != null ? buffer : ByteBuffer.allocate(initialRequestSize);
+    }
+
+    /**
+     * Gives the buffer a packet has been encoded into back for the next request of the thread.
+     */
+    protected void releaseRequestBuffer(ByteBuffer buffer) {
+        if (buffer.capacity() <= MAX_POOLED_REQUEST_SIZE) {
+            requestBuffers.set(requestBufferSlot(), buffer);
+        }
+    }
+
+    private static int requestBufferSlot() {
+        return (int) (Thread.currentThread().getId() & (REQUEST_BUFFER_SLOTS - 1));
+    }
+
+    /**
+     * Encodes the request straight into the given buffer, growing it when the request does not fit.
+     *
+     * @return buffer in read mode holding the whole packet, either the given one or its grown copy
+     */
+    protected ByteBuffer createPacket(ByteBuffer buffer, Code code, Long syncId, Long schemaId, Object... args) {
+        buffer.clear();
+        buffer = appendPacket(buffer, code, syncId, schemaId, args);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Encodes the request at the position of the buffer, growing it when the request does not fit,
+     * so that several requests can be encoded back to back.
+     *
+     * @return buffer in write mode positioned right after the packet, either the given one or its grown copy
+     */
+    protected ByteBuffer appendPacket(ByteBuffer buffer, Code code, Long syncId, Long schemaId, Object... args) {
+        buffer = msgPackLite.ensureCapacity(buffer, 5);
+        int start = buffer.position();
+        buffer.position(start + 5);
+        buffer = msgPackLite.packMapHeader(schemaId == null ? 2 : 3, buffer);
+        buffer = msgPackLite.packLong(Key.CODE.getId(), buffer);
+        buffer = msgPackLite.packLong(code.getId(), buffer);
+        buffer = msgPackLite.packLong(Key.SYNC.getId(), buffer);
+        buffer = msgPackLite.pack(syncId, buffer);
+        if (schemaId != null) {
+            buffer = msgPackLite.packLong(Key.SCHEMA_ID.getId(), buffer);
+            buffer = msgPackLite.packLong(schemaId, buffer);
+        }
+        int size = args == null ? 0 : args.length / 2;
+        buffer = msgPackLite.packMapHeader(size, buffer);
+        for (int i = 0; i < size * 2; i += 2) {
+            buffer = msgPackLite.packLong(((Key) args[i]).getId(), buffer);
+            buffer = msgPackLite.pack(args[i + 1], buffer);
+        }
+        buffer.put(start, (byte) 0xce);
+        buffer.putInt(start + 1, buffer.position() - start - 5);
+        return buffer;
+    }
+
+    protected void readPacket() throws IOException {
+        ByteBuffer frame = readFrame();
+        // lazy tuples and binary views refer to the frame, which is overwritten by the next read
+        readPacket(lazyTuples || binaryViews ? copyFrame(frame) : frame);
+    }
+
+    /**
+     * Reads a whole packet straight into the buffer of the input stream.
+     *
+     * @return buffer holding the packet without its size prefix, only valid until the next read
+     */
+    protected ByteBuffer readFrame() throws IOException {
+        return cis.readFrame();
+    }
+
+    /**
+     * Copies the rest of the frame into an array of its own, taken from the pool if there is one,
+     * so that values decoded from it may outlive the buffer the frame has been read into.
+     */
+    protected ByteBuffer copyFrame(ByteBuffer frame) {
+        int size = frame.remaining();
+        byte[] copy = framePool == null ? new byte[size] : framePool.acquire(size);
+        frame.get(copy, 0, size);
+        return ByteBuffer.wrap(copy, 0, size);
+    }
+
+    /**
+     * @param decoder decoder of the DATA value or {@code null} for the default decoding
+     * @return whether the decoded DATA refers to the frame, so that the frame has to be copied
+     */
+    protected boolean keepsFrame(DataDecoder<?> decoder) {
+        return decoder != null ? decoder.keepsFrame() : lazyTuples || binaryViews;
+    }
+
+    /**
+     * Gives the copied frame back to the pool once nothing decoded from it refers to its array.
+     */
+    protected void releaseFrame(ByteBuffer frame) {
+        if (framePool != null) {
+            framePool.release(frame.array());
+        }
+    }
+
+    /**
+     * Decodes a packet which has been read as a whole.
+     *
+     * @param frame buffer holding the packet without its size prefix
+     */
+    protected void readPacket(ByteBuffer frame) {
+        readHeader(frame);
+        readBody(frame, null);
+    }
+
+    /**
+     * Reads code, sync and schema id of the packet into primitive fields, skipping other header keys.
+     */
+    protected void readHeader(ByteBuffer frame) {
+        responseCode = 0;
+        responseSync = 0;
+        responseSchemaId = 0;
+        for (int i = 0, size = msgPackLite.unpackMapHeader(frame); i < size; i++) {
+            long key = msgPackLite.unpackLong(frame);
+            if (key == Key.CODE.getId()) {
+                responseCode = msgPackLite.unpackLong(frame);
+            } else if (key == Key.SYNC.getId()) {
+                responseSync = msgPackLite.unpackLong(frame);
+            } else if (key == Key.SCHEMA_ID.getId()) {
+                responseSchemaId = msgPackLite.unpackLong(frame);
+            } else {
+                msgPackLite.skip(frame);
+            }
+        }
+    }
+
+    /**
+     * Reads the body of the packet into the {@link #body} slots, skipping keys the client does not know.
+     *
+     * @param decoder decoder of the DATA value or {@code null} for the default decoding
+     */
+    protected void readBody(ByteBuffer frame, DataDecoder<?> decoder) {
+        Arrays.fill(body, null);
+        if (!frame.hasRemaining()) {
+            return;
+        }
+        for (int i = 0, size = msgPackLite.unpackMapHeader(frame); i < size; i++) {
+            long key = msgPackLite.unpackLong(frame);
+            if (key < 0 || key >= body.length) {
+                msgPackLite.skip(frame);
+            } else if (decoder != null && key == Key.DATA.getId()) {
+                body[(int) key] = decoder.decode(msgPackLite, frame);
+            } else if (lazyTuples && key == Key.DATA.getId()) {
+                body[(int) key] = unpackTuples(frame);
+            } else if (binaryViews && key == Key.DATA.getId() && msgPackLite.isArray(frame)) {
+                body[(int) key] = unpackViews(frame);
+            } else {
+                body[(int) key] = msgPackLite.unpack(frame);
+            }
+        }
+    }
+
+    /**
+     * Unpacks the DATA array replacing every tuple with a {@link TarantoolTuple} view over the frame.
+     */
+    protected List<?> unpackTuples(ByteBuffer frame) {
+        int size = msgPackLite.unpackArrayHeader(frame);
+        List<Object> tuples = new ArrayList<Object>(size);
+        for (int i = 0; i < size; i++) {
+            tuples.add(msgPackLite.isArray(frame) ? new TarantoolTuple(msgPackLite, frame) : msgPackLite.unpack(frame));
+        }
+        return tuples;
+    }
+
+    /**
+     * Unpacks the DATA array with binary values left as read-only views over the frame.
+     */
+    protected List<?> unpackViews(ByteBuffer frame) {
+        int size = msgPackLite.unpackArrayHeader(frame);
+        FrameList data = new FrameList(size, framePool, frame.array());
+        for (int i = 0; i < size; i++) {
+            data.add(msgPackLite.unpack(frame, true));
+        }
+        return data;
+    }
+
+    protected static class SQLMetaData {
+        protected String name;
+
+        public SQLMetaData(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return "SQLMetaData{" +
+                    "name='" + name + '\'' +
+                    '}';
+        }
+    }
+
+    protected List<SQLMetaData> getSQLMetadata() {
+        List<Map<Integer, Object>> meta = (List<Map<Integer, Object>>) body[Key.SQL_METADATA.getId()];
+        List<SQLMetaData> values = new ArrayList<SQLMetaData>(meta.size());
+        for(Map<Integer,Object> c:meta ) {
+           values.add(new SQLMetaData((String) c.get(Key.SQL_FIELD_NAME.getId())));
+        }
+        return values;
+    }
+
+    protected List<List<Object>> getSQLData() {
+        return (List<List<Object>>) body[Key.DATA.getId()];
+    }
+
+    protected List<Map<String, Object>> readSqlResult(List<List<?>> data) {
+        List<Map<String, Object>> values = new ArrayList<Map<String, Object>>(data.size());
+        List<SQLMetaData> metaData = getSQLMetadata();
+        LinkedHashMap<String, Object> value = new LinkedHashMap<String, Object>();
+        for (List row : data) {
+            for (int i = 0; i < row.size(); i++) {
+                value.put(metaData.get(i).getName(), row.get(i));
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+
+    protected Long getSqlRowCount() {
+        Map<Key, Object> info = (Map<Key, Object>) body[Key.SQL_INFO.getId()];
+        Number rowCount;
+        if (info != null && (rowCount = ((Number) info.get(Key.SQL_ROW_COUNT.getId()))) != null) {
+            return rowCount.longValue();
+        }
+        return null;
+    }
+
+
+    protected TarantoolException serverError(long code, Object error) {
+        return new TarantoolException(code, error instanceof String ? (String) error : new String((byte[]) error));
+    }
+
+    /**
+     * @deprecated requests are encoded straight into a {@link ByteBuffer} by {@link MsgPackLite#pack(Object, ByteBuffer)},
+     * this stream is not used by the connector anymore and will be removed
+     */
+    @Deprecated
+    protected class ByteArrayOutputStream extends java.io.ByteArrayOutputStream {
+        public ByteArrayOutputStream(int size) {
+            super(size);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    protected void closeChannel(SocketChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+
+            }
+        }
+    }
+
+    protected void validateArgs(Object[] args) {
+        if (args != null) {
+            for (int i = 0; i < args.length; i += 2) {
+                if (args[i + 1] == null) {
+                    throw new NullPointerException(((Key) args[i]).name() + " should not be null");
+                }
+            }
+        }
+    }
+
+    public void setInitialRequestSize(int initialRequestSize) {
+        this.initialRequestSize = initialRequestSize;
+    }
+
+    /**
+     * @param lazyTuples whether tuples in responses should be returned as {@link TarantoolTuple} views
+     */
+    public void setLazyTuples(boolean lazyTuples) {
+        this.lazyTuples = lazyTuples;
+    }
+
+    public String getServerVersion() {
+        return serverVersion;
+    }
+}
@@ -0,0 +1,138 @@
+package org.tarantool;
+
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+public class TarantoolClientConfig {
+
+    /**
+     * username and password for authorization
+     */
+    public String username;
+
+    public String password;
+
+    /**
+     * initial size of the buffer a request is serialized into
+     */
+    public int defaultRequestSize = 4096;
+
+    /**
+     * number of slots in the table which holds futures of sent requests by their sync id, rounded up to a power of two.
+     * Requests in flight beyond that go to a slower overflow map
+     */
+    public int predictedFutures = 16 * 1024;
+
+
+    public int writerThreadPriority = Thread.NORM_PRIORITY;
+
+    public int readerThreadPriority = Thread.NORM_PRIORITY;
+
+
+    /**
+     * shared buffer is place where client collect requests when socket is busy on write.
+     * Clients of an {@link #eventLoopGroup} start with {@link TarantoolEventLoopGroup#getWriteRingSize()}
+     * on the heap and grow up to this size when the buffer is found full
+     */
+    public int sharedBufferSize = 8 * 1024 * 1024;
+    /**
+     * not put request into the shared buffer if request size is ge directWriteFactor * sharedBufferSize
+     */
+    public double directWriteFactor = 0.5d;
+
+    /**
+     * how long the writer lets requests accumulate in the shared buffer before writing them to the socket,
+     * 0 writes whatever is there right away. Trades up to that much latency for fewer, larger writes
+     */
+    public long writeCoalesceMicros = 0;
+
+    /**
+     * amount of accumulated requests in bytes which is written without waiting out writeCoalesceMicros
+     */
+    public int writeCoalesceBytes = 64 * 1024;
+
+    /**
+     * limit of requests sent and not answered yet, 0 for no limit. Fire and forget requests are not counted
+     */
+    public int maxInFlightRequests = 0;
+
+    /**
+     * limit of bytes of requests sent and not answered yet, 0 for no limit.
+     * A request over the limit on its own is sent once nothing else is in flight
+     */
+    public long maxInFlightBytes = 0;
+
+    /**
+     * what happens to requests which would exceed maxInFlightRequests or maxInFlightBytes
+     */
+    public InFlightPolicy inFlightPolicy = InFlightPolicy.BLOCK;
+
+    /**
+     *  Use old call command https://github.com/tarantool/doc/issues/54,
+     *  please ensure that you server supports new call command
+     */
+    public boolean useNewCall = false;
+
+    /**
+     * Return tuples as {@link TarantoolTuple} views over the response bytes
+     * which decode fields only when they are accessed
+     */
+    public boolean lazyTuples = false;
+
+    /**
+     * Return binary fields of tuples as read-only {@link java.nio.ByteBuffer} views over the response
+     * instead of copying them into byte arrays. The DATA list is then {@link Releasable}:
+     * release it once the views are no longer used to let the client read another response into the same memory
+     */
+    public boolean binaryViews = false;
+
+    /**
+     * Number of arrays kept for reuse per power of two size when reading responses, 0 disables pooling
+     */
+    public int framePoolSize = 0;
+
+    /**
+     * Size of the largest response whose array is reused
+     */
+    public int framePoolMaxFrameSize = 1024 * 1024;
+
+    /**
+     * How the writer thread waits for requests, see {@link WaitStrategies}
+     */
+    public WaitStrategy writerWaitStrategy = WaitStrategies.BLOCKING;
+
+    /**
+     * How the reader thread waits for responses: a blocking strategy waits in a selector,
+     * the others poll the channel in between
+     */
+    public WaitStrategy readerWaitStrategy = WaitStrategies.BLOCKING;
+
+    /**
+     * Event loop group to read and write the connection in instead of a reader and a writer thread of its own.
+     * Thread priorities, wait strategies and write coalescing only apply to threads of its own.
+     */
+    public TarantoolEventLoopGroup eventLoopGroup;
+
+    /**
+     * Lets requests made from virtual threads be written to the socket by the calling thread itself
+     * whenever no other thread is writing, instead of being handed over to the writer or the event loop.
+     * Only has an effect on Java 21 and newer
+     */
+    public boolean virtualThreadWrites = false;
+
+    /**
+     * Executor completing the stages of {@link TarantoolClientImpl#stageOps()}, which runs their continuations
+     * unless they are async. {@code null} stands for {@link java.util.concurrent.ForkJoinPool#commonPool()},
+     * an executor running tasks in place completes them in the reader thread or the event loop
+     */
+    public Executor completionExecutor;
+
+    /**
+     * Any blocking ops timeout
+     */
+    public long initTimeoutMillis = 60*1000L;
+
+    public long writeTimeoutMillis = 60*1000L;
+
+}
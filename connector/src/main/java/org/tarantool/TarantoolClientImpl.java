@@ -0,0 +1,1657 @@
+package org.tarantool;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.tarantool.codec.Codec;
+import org.tarantool.codec.CodecArgument;
+
+
+public class TarantoolClientImpl extends TarantoolBase<Future<?>> implements TarantoolClient {
+    public static final CommunicationException NOT_INIT_EXCEPTION = new CommunicationException("Not connected, initializing connection");
+    /**
+     * {@code Thread.isVirtual()} of Java 21 or {@code null} on older versions
+     */
+    private static final Method IS_VIRTUAL = findIsVirtual();
+    protected TarantoolClientConfig config;
+
+    /**
+     * External
+     */
+    protected SocketChannelProvider socketProvider;
+    protected volatile Exception thumbstone;
+
+    protected FutureTable futures;
+    /**
+     * Limits of requests in flight or {@code null} if there are none
+     */
+    protected InFlightLimiter inFlight;
+    /**
+     * Requests waiting for room in flight with {@link InFlightPolicy#ASYNC_WAIT}
+     */
+    protected Queue<PendingRequest> pendingRequests = new ConcurrentLinkedQueue<PendingRequest>();
+    protected AtomicInteger wait = new AtomicInteger();
+    /**
+     * Write properties
+     */
+    protected SocketChannel channel;
+    protected WriteRing ring;
+    protected volatile boolean writerParked;
+    protected volatile boolean writerCoalescing;
+    protected ReentrantLock writeLock = new ReentrantLock(true);
+    protected final ReentrantLock dieLock = new ReentrantLock();
+    /**
+     * Event loop the connection is registered in or {@code null} if it is read and written by threads of its own
+     */
+    protected TarantoolEventLoopGroup eventLoopGroup;
+    protected TarantoolEventLoopGroup.EventLoop eventLoop;
+    protected SelectionKey selectionKey;
+    protected final AtomicBoolean flushScheduled = new AtomicBoolean();
+    /**
+     * Pending request which did not fit into the ring, written by the event loop before anything else
+     */
+    protected PendingRequest deferredRequest;
+    /**
+     * Requests too large for the ring, written by the event loop once the ring is written up to a packet boundary
+     */
+    protected final Queue<ByteBuffer> largeWrites = new ConcurrentLinkedQueue<ByteBuffer>();
+    /**
+     * Rest of a packet whose start is written to the channel already, which has to be written before
+     * anything else. Guarded by the write lock
+     */
+    protected volatile ByteBuffer partialPacket;
+    protected volatile Thread reconnecting;
+
+    /**
+     * Interfaces
+     */
+    protected SyncOps syncOps;
+    protected FireAndForgetOps fireAndForgetOps;
+    protected RawAsyncOps rawAsyncOps;
+
+    /**
+     * Inner
+     */
+    protected TarantoolClientStats stats;
+    protected StateHelper state = new StateHelper(StateHelper.RECONNECT);
+    protected Thread reader;
+    protected Thread writer;
+
+    protected Thread connector = new Thread(new Runnable() {
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (state.compareAndSet(StateHelper.RECONNECT, 0)) {
+                    reconnect(0, thumbstone);
+                }
+                LockSupport.park(state);
+            }
+        }
+    });
+
+    public TarantoolClientImpl(SocketChannelProvider socketProvider, TarantoolClientConfig config) {
+        super();
+        this.thumbstone = NOT_INIT_EXCEPTION;
+        this.config = config;
+        this.initialRequestSize = config.defaultRequestSize;
+        this.lazyTuples = config.lazyTuples;
+        this.binaryViews = config.binaryViews;
+        this.eventLoopGroup = config.eventLoopGroup;
+        if (config.framePoolSize > 0) {
+            this.framePool = new FramePool(config.framePoolSize, config.framePoolMaxFrameSize);
+        } else if (eventLoopGroup != null) {
+            this.framePool = eventLoopGroup.getFramePool();
+        }
+        this.socketProvider = socketProvider;
+        this.stats = new TarantoolClientStats();
+        this.futures = new FutureTable(config.predictedFutures);
+        if (eventLoopGroup != null) {
+            // most attached clients never need much, and the event loop writes heap buffers through its own
+            this.ring = new WriteRing(Math.min(eventLoopGroup.getWriteRingSize(), config.sharedBufferSize),
+                    config.sharedBufferSize, false);
+        } else {
+            this.ring = new WriteRing(config.sharedBufferSize);
+        }
+        if (config.maxInFlightRequests > 0 || config.maxInFlightBytes > 0) {
+            this.inFlight = new InFlightLimiter(config.maxInFlightRequests, config.maxInFlightBytes);
+        }
+        this.connector.setDaemon(true);
+        this.connector.setName("Tarantool connector");
+        this.syncOps = new SyncOps();
+        this.fireAndForgetOps = new FireAndForgetOps();
+        this.rawAsyncOps = new RawAsyncOps();
+        if (config.useNewCall) {
+            setCallCode(Code.CALL);
+            this.syncOps.setCallCode(Code.CALL);
+            this.fireAndForgetOps.setCallCode(Code.CALL);
+            this.rawAsyncOps.setCallCode(Code.CALL);
+        }
+        if (eventLoopGroup == null) {
+            connector.start();
+        } else {
+            scheduleReconnect();
+        }
+        try {
+            if (!waitAlive(config.initTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                CommunicationException e = new CommunicationException(config.initTimeoutMillis +
+                        "ms is exceeded when waiting for client initialization. " +
+                        "You could configure init timeout in TarantoolConfig");
+
+                close(e);
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            close(e);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    protected void reconnect(int retry, Throwable lastError) {
+        SocketChannel channel;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                channel = socketProvider.get(retry++, lastError == NOT_INIT_EXCEPTION ? null : lastError);
+            } catch (Exception e) {
+                close(e);
+                return;
+            }
+            try {
+                connect(channel);
+                return;
+            } catch (Exception e) {
+                closeChannel(channel);
+                lastError = e;
+                if (e instanceof InterruptedException)
+                    Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return address of the peer for thread names
+     */
+    protected String remoteAddress(SocketChannel channel) {
+        try {
+            return String.valueOf(channel.socket().getRemoteSocketAddress());
+        } catch (UnsupportedOperationException e) {
+            // channels of Unix domain sockets have no socket adaptor
+            return channel.toString();
+        }
+    }
+
+    /**
+     * Reconnects in the connector thread or, with an event loop group, in a thread of the group.
+     */
+    protected void scheduleReconnect() {
+        if (eventLoopGroup == null) {
+            LockSupport.unpark(connector);
+            return;
+        }
+        eventLoopGroup.reconnect(new Runnable() {
+            @Override
+            public void run() {
+                reconnecting = Thread.currentThread();
+                try {
+                    if (state.compareAndSet(StateHelper.RECONNECT, 0)) {
+                        reconnect(0, thumbstone);
+                    }
+                } finally {
+                    reconnecting = null;
+                    // the thread is reused for other clients
+                    Thread.interrupted();
+                }
+            }
+        });
+    }
+
+    protected void connect(final SocketChannel channel) throws Exception {
+        try {
+            DataInputStream is = new DataInputStream(cis = eventLoopGroup == null ?
+                    new ByteBufferInputStream(channel, config.readerWaitStrategy) :
+                    new ByteBufferInputStream(channel, eventLoopGroup.getReadBufferSize()));
+            byte[] bytes = new byte[64];
+            is.readFully(bytes);
+            String firstLine = new String(bytes);
+            if (!firstLine.startsWith("Tarantool")) {
+                CommunicationException e = new CommunicationException("Welcome message should starts with tarantool " +
+                        "but starts with '" + firstLine + "'", new IllegalStateException("Invalid welcome packet"));
+
+                close(e);
+                throw e;
+            }
+            is.readFully(bytes);
+            this.salt = new String(bytes);
+            if (config.username != null && config.password != null) {
+                writeFully(channel, createAuthPacket(config.username, config.password));
+                readPacket();
+                if (responseCode != 0) {
+                    throw serverError(responseCode, body[Key.ERROR.getId()]);
+                }
+            }
+            this.is = is;
+        } catch (IOException e) {
+            try {
+                is.close();
+            } catch (IOException ignored) {
+
+            }
+            try {
+                cis.close();
+            } catch (IOException ignored) {
+
+            }
+            throw new CommunicationException("Couldn't connect to tarantool", e);
+        }
+        channel.configureBlocking(false);
+        this.channel = channel;
+        // the writer of the previous connection has stopped, so requests it left are dropped here
+        ring.discard();
+        deferredRequest = null;
+        largeWrites.clear();
+        partialPacket = null;
+        this.thumbstone = null;
+        if (eventLoopGroup == null) {
+            startThreads(remoteAddress(channel));
+        } else {
+            eventLoop = eventLoopGroup.next();
+            eventLoop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    attach(channel);
+                }
+            });
+        }
+    }
+
+    /**
+     * Registers the channel in the selector of the event loop. Event loop only.
+     */
+    protected void attach(SocketChannel channel) {
+        if (!state.acquire(StateHelper.ALIVE)) {
+            closeInput();
+            closeChannel(channel);
+            return;
+        }
+        try {
+            selectionKey = channel.register(eventLoop.selector, SelectionKey.OP_READ, this);
+        } catch (IOException e) {
+            die("Cant register channel", e);
+            return;
+        }
+        if (!ring.isEmpty() || !pendingRequests.isEmpty() || !largeWrites.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Deregisters the channel once the connection is dead and lets it reconnect. Event loop only.
+     */
+    protected void detach() {
+        if (selectionKey == null) {
+            return;
+        }
+        selectionKey.cancel();
+        selectionKey = null;
+        closeInput();
+        closeChannel(channel);
+        state.release(StateHelper.ALIVE);
+        if (state.compareAndSet(0, StateHelper.RECONNECT)) {
+            scheduleReconnect();
+        }
+    }
+
+    protected void startThreads(String threadName) throws InterruptedException {
+        final CountDownLatch init = new CountDownLatch(2);
+        reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                init.countDown();
+                if (state.acquire(StateHelper.READING)) {
+                    try {
+                        readThread();
+                    } finally {
+                        state.release(StateHelper.READING);
+                        if (state.compareAndSet(0, StateHelper.RECONNECT))
+                            scheduleReconnect();
+                    }
+                }
+            }
+        });
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                init.countDown();
+                if (state.acquire(StateHelper.WRITING)) {
+                    try {
+                        writeThread();
+                    } finally {
+                        state.release(StateHelper.WRITING);
+                        if (state.compareAndSet(0, StateHelper.RECONNECT))
+                            scheduleReconnect();
+                    }
+                }
+            }
+        });
+
+        configureThreads(threadName);
+        reader.start();
+        writer.start();
+        init.await();
+    }
+
+    protected void configureThreads(String threadName) {
+        reader.setName("Tarantool " + threadName + " reader");
+        writer.setName("Tarantool " + threadName + " writer");
+        writer.setPriority(config.writerThreadPriority);
+        reader.setPriority(config.readerThreadPriority);
+    }
+
+
+    protected Future<?> exec(Code code, Object... args) {
+        return exec(null, code, args);
+    }
+
+    /**
+     * @param decoder decoder of the response DATA or {@code null} for the default decoding
+     */
+    protected Future<?> exec(DataDecoder<?> decoder, Code code, Object... args) {
+        validateArgs(args);
+        FutureImpl<?> q = makeFuture(syncId.incrementAndGet(), code, args);
+        q.setDataDecoder(decoder);
+        submit(q, args);
+        return q;
+    }
+
+    /**
+     * Sends the request of the future, whose decoder and completion callback are set already.
+     */
+    protected void submit(FutureImpl<?> q, Object... args) {
+        if (isDead(q)) {
+            return;
+        }
+        ByteBuffer packet;
+        try {
+            packet = createPacket(q.getCode(), q.getId(), null, args);
+        } catch (Exception e) {
+            fail(q, e);
+            return;
+        }
+        try {
+            send(q, packet);
+        } finally {
+            releaseRequestBuffer(packet);
+        }
+    }
+
+    protected FutureImpl<?> makeFuture(long id, Code code, Object... args) {
+        return new FutureImpl(id, code);
+    }
+
+    /**
+     * Starts a batch of operations which are encoded into one buffer and handed to the writer at once.
+     *
+     * @return pipeline whose operations return their own futures until it is {@link TarantoolPipeline#execute() executed}
+     */
+    public TarantoolPipeline pipeline() {
+        TarantoolPipeline pipeline = new TarantoolPipeline(this);
+        if (config.useNewCall) {
+            pipeline.setCallCode(Code.CALL);
+        }
+        return pipeline;
+    }
+
+    protected void send(FutureImpl<?> q, ByteBuffer packet) {
+        q.requestSize = packet.remaining();
+        exec(Collections.<FutureImpl<?>>singletonList(q), packet);
+    }
+
+    /**
+     * Sends packets encoded back to back, subject to the in-flight limits.
+     *
+     * @param ops     futures of the packets in the order they were encoded, with their request sizes set
+     * @param packets buffer in read mode holding the packets
+     */
+    protected void exec(List<FutureImpl<?>> ops, ByteBuffer packets) {
+        if (inFlight != null && !acquireInFlight(ops, packets)) {
+            return;
+        }
+        if (register(ops)) {
+            try {
+                write(packets);
+            } catch (Exception e) {
+                failRegistered(ops, e);
+            }
+        }
+    }
+
+    /**
+     * Takes room in flight for the requests according to {@link TarantoolClientConfig#inFlightPolicy}.
+     *
+     * @return {@code true} if the requests are to be sent right away,
+     * otherwise they are either failed or queued to be sent by the writer
+     */
+    protected boolean acquireInFlight(List<FutureImpl<?>> ops, ByteBuffer packets) {
+        int count = ops.size();
+        int size = packets.remaining();
+        switch (config.inFlightPolicy) {
+        case FAIL_FAST:
+            if (!inFlight.tryAcquire(count, size)) {
+                stats.inFlightRejects++;
+                failAll(ops, new RejectedExecutionException(inFlight.getRequests() + " requests of " +
+                        inFlight.getBytes() + " bytes are in flight, you could configure limits in TarantoolConfig"));
+                return false;
+            }
+            break;
+        case ASYNC_WAIT:
+            if (!pendingRequests.isEmpty() || !inFlight.tryAcquire(count, size)) {
+                stats.inFlightQueued++;
+                // the packets may be in a reused request buffer
+                pendingRequests.add(new PendingRequest(ops, copy(packets)));
+                if (thumbstone != null) {
+                    failPending(new CommunicationException("Connection is dead", thumbstone));
+                } else {
+                    wakeWriter();
+                }
+                return false;
+            }
+            break;
+        default:
+            if (!inFlight.tryAcquire(count, size)) {
+                stats.inFlightWaits++;
+                try {
+                    if (!inFlight.acquire(count, size, config.writeTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                        failAll(ops, new TimeoutException(config.writeTimeoutMillis + "ms is exceeded while waiting " +
+                                "for requests in flight you could configure write timeout in TarantoolConfig"));
+                        return false;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failAll(ops, new CommunicationException("Interrupted", e));
+                    return false;
+                }
+            }
+        }
+        for (FutureImpl<?> q : ops) {
+            q.inFlight = true;
+        }
+        return true;
+    }
+
+    /**
+     * Makes the futures wait for responses.
+     *
+     * @return {@code false} if the connection is dead, in which case the futures are failed
+     */
+    protected boolean register(List<FutureImpl<?>> ops) {
+        for (FutureImpl<?> q : ops) {
+            futures.put(q);
+        }
+        if (thumbstone != null) {
+            failRegistered(ops, new CommunicationException("Connection is dead", thumbstone));
+            return false;
+        }
+        return true;
+    }
+
+    protected static ByteBuffer copy(ByteBuffer buffer) {
+        ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+        copy.put(buffer.duplicate());
+        copy.flip();
+        return copy;
+    }
+
+    protected void failRegistered(List<FutureImpl<?>> ops, Exception e) {
+        for (FutureImpl<?> q : ops) {
+            if (futures.remove(q)) {
+                releaseInFlight(q);
+                fail(q, e);
+            }
+        }
+    }
+
+    protected void failAll(List<FutureImpl<?>> ops, Exception e) {
+        for (FutureImpl<?> q : ops) {
+            fail(q, e);
+        }
+    }
+
+    protected void failPending(Exception e) {
+        PendingRequest request;
+        while ((request = pendingRequests.poll()) != null) {
+            failAll(request.ops, e);
+        }
+    }
+
+    /**
+     * Gives the room of a request removed from {@link #futures} back.
+     */
+    protected void releaseInFlight(FutureImpl<?> q) {
+        if (q.inFlight) {
+            q.inFlight = false;
+            inFlight.release(1, q.requestSize);
+            if (!pendingRequests.isEmpty()) {
+                wakeWriter();
+            }
+        }
+    }
+
+    protected boolean isPendingSendable() {
+        PendingRequest request = pendingRequests.peek();
+        return request != null && inFlight.canAcquire(request.ops.size(), request.packets.remaining());
+    }
+
+    /**
+     * Writes queued requests for which there is room in flight now. Writer thread only.
+     */
+    protected void sendPending() throws IOException {
+        PendingRequest request;
+        while ((request = pendingRequests.peek()) != null &&
+                inFlight.tryAcquire(request.ops.size(), request.packets.remaining())) {
+            if (!pendingRequests.remove(request)) {
+                // failed by die() meanwhile
+                inFlight.release(request.ops.size(), request.packets.remaining());
+                continue;
+            }
+            for (FutureImpl<?> q : request.ops) {
+                q.inFlight = true;
+            }
+            if (register(request.ops)) {
+                writeLock.lock();
+                try {
+                    writePartialPacket();
+                    writeFully(channel, request.packets);
+                } finally {
+                    writeLock.unlock();
+                }
+                wait.incrementAndGet();
+            }
+        }
+    }
+
+    protected Future<?> exec(PreparedRequest request, Object argument) {
+        if (argument == null) {
+            throw new NullPointerException(request.argumentKey.name() + " should not be null");
+        }
+        FutureImpl<?> q = makeFuture(syncId.incrementAndGet(), request.getCode(), request.getArgs(argument));
+        if (isDead(q)) {
+            return q;
+        }
+        ByteBuffer packet;
+        try {
+            packet = request.createPacket(q.getId(), argument);
+        } catch (Exception e) {
+            fail(q, e);
+            return q;
+        }
+        try {
+            send(q, packet);
+        } finally {
+            releaseRequestBuffer(packet);
+        }
+        return q;
+    }
+
+    /**
+     * Prepares a select with everything but the key encoded once.
+     * Executing it costs a copy of the encoded request plus encoding of the key.
+     *
+     * @return request to be executed with the key as the argument
+     */
+    public PreparedRequest prepareSelect(int space, int index, int offset, int limit, int iterator) {
+        return new PreparedRequest(this, msgPackLite, Code.SELECT, Key.KEY,
+                Key.SPACE, space, Key.INDEX, index, Key.ITERATOR, iterator, Key.LIMIT, limit, Key.OFFSET, offset);
+    }
+
+    public PreparedRequest prepareSelect(int space, int index, int offset, int limit, Iterator iterator) {
+        return prepareSelect(space, index, offset, limit, iterator.getValue());
+    }
+
+    protected void die(String message, Exception cause) {
+        // a lock rather than a monitor, which would pin a virtual thread to its carrier while stopping I/O
+        dieLock.lock();
+        try {
+            if (thumbstone != null) {
+                return;
+            }
+            final CommunicationException err = new CommunicationException(message, cause);
+            this.thumbstone = err;
+            // requests registered after the thumbstone is set fail by themselves
+            for (FutureImpl<?> future : futures.removeAll()) {
+                releaseInFlight(future);
+                fail(future, err);
+            }
+            failPending(err);
+            stopIO();
+        } finally {
+            dieLock.unlock();
+        }
+    }
+
+
+    public void ping() {
+        syncGet(exec(Code.PING));
+    }
+
+
+    protected void write(Code code, Long syncId, Long schemaId, Object... args)
+            throws Exception {
+        ByteBuffer packet = createPacket(code, syncId, schemaId, args);
+        try {
+            write(packet);
+        } finally {
+            releaseRequestBuffer(packet);
+        }
+    }
+
+    protected void write(ByteBuffer buffer) throws Exception {
+        if (directWrite(buffer) || virtualThreadWrite(buffer)) {
+            return;
+        }
+        sharedWrite(buffer);
+    }
+
+    /**
+     * Writes the request in the calling virtual thread if no other thread is writing and nothing
+     * is queued before it, which saves handing it over to the writer and waking the writer up.
+     * The thread does not wait for a full channel: the rest of the request is left to the writer.
+     *
+     * @return {@code false} if the request is to be written through the shared buffer
+     * @see TarantoolClientConfig#virtualThreadWrites
+     */
+    protected boolean virtualThreadWrite(ByteBuffer buffer) throws IOException {
+        if (!config.virtualThreadWrites || !isVirtual(Thread.currentThread()) || !writeLock.tryLock()) {
+            return false;
+        }
+        boolean partial;
+        try {
+            // the ring and the partial packet may start in the middle of a packet
+            if (partialPacket != null || !ring.isEmpty()) {
+                return false;
+            }
+            partial = !writeAvailable(buffer);
+            if (partial) {
+                // the packet may be in a reused request buffer
+                partialPacket = copy(buffer);
+            }
+            stats.virtualThreadWrites++;
+            wait.incrementAndGet();
+        } finally {
+            writeLock.unlock();
+        }
+        if (partial) {
+            wakeWriter();
+        } else if (eventLoop != null) {
+            // the event loop skips flushes while the lock is held
+            scheduleFlush();
+        }
+        return true;
+    }
+
+    /**
+     * Writes the rest of the packet a virtual thread has left before anything else. Without an event loop only,
+     * under the write lock.
+     */
+    protected void writePartialPacket() throws IOException {
+        ByteBuffer packet = partialPacket;
+        if (packet != null) {
+            writeFully(channel, packet);
+            partialPacket = null;
+        }
+    }
+
+    protected static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static Method findIsVirtual() {
+        try {
+            return Thread.class.getMethod("isVirtual");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    protected void sharedWrite(ByteBuffer buffer) throws InterruptedException, TimeoutException {
+        int rem = buffer.remaining();
+        stats.sharedMaxPacketSize = Math.max(stats.sharedMaxPacketSize, rem);
+        if (rem > initialRequestSize) {
+            stats.sharedPacketSizeGrowth++;
+        }
+        if (!ring.offer(buffer)) {
+            stats.sharedEmptyAwait++;
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.writeTimeoutMillis);
+            do {
+                if (thumbstone != null) {
+                    throw new CommunicationException("Connection is lost while waiting for space in shared buffer", thumbstone);
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    stats.sharedEmptyAwaitTimeouts++;
+                    throw new TimeoutException(config.writeTimeoutMillis + "ms is exceeded while waiting for empty buffer you could configure write timeout it in TarantoolConfig");
+                }
+                LockSupport.parkNanos(ring, Math.min(remaining, TimeUnit.MICROSECONDS.toNanos(100)));
+                if (Thread.interrupted()) {
+                    throw new CommunicationException("Interrupted", new InterruptedException());
+                }
+            } while (!ring.offer(buffer));
+        }
+        wait.incrementAndGet();
+        stats.buffered++;
+        if (eventLoop != null) {
+            scheduleFlush();
+        } else if (writerParked || writerCoalescing && ring.size() >= config.writeCoalesceBytes) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    protected void wakeWriter() {
+        if (eventLoop != null) {
+            scheduleFlush();
+        } else if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Asks the event loop to flush the ring unless it is asked already.
+     */
+    protected void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            eventLoop.flush(this);
+        }
+    }
+
+    private boolean directWrite(ByteBuffer buffer) throws InterruptedException, IOException, TimeoutException {
+        if (ring.capacity() * config.directWriteFactor <= buffer.limit()) {
+            if (eventLoop != null) {
+                queueLargeWrite(buffer);
+                return true;
+            }
+            if (writeLock.tryLock(config.writeTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                try {
+                    int rem = buffer.remaining();
+                    stats.directMaxPacketSize = Math.max(stats.directMaxPacketSize, rem);
+                    if (rem > initialRequestSize) {
+                        stats.directPacketSizeGrowth++;
+                    }
+                    writePartialPacket();
+                    writeFully(channel, buffer);
+                    stats.directWrite++;
+                    wait.incrementAndGet();
+                } finally {
+                    writeLock.unlock();
+                }
+                return true;
+            } else {
+                stats.directWriteLockTimeouts++;
+                throw new TimeoutException(config.writeTimeoutMillis + "ms is exceeded while waiting for channel lock you could configure write timeout in TarantoolConfig");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hands a request too large for the ring over to the event loop. The loop may have stopped
+     * in the middle of a packet when the channel was full, so nothing but the loop writes to the channel.
+     */
+    protected void queueLargeWrite(ByteBuffer buffer) {
+        int rem = buffer.remaining();
+        stats.directMaxPacketSize = Math.max(stats.directMaxPacketSize, rem);
+        if (rem > initialRequestSize) {
+            stats.directPacketSizeGrowth++;
+        }
+        // the packet may be in a reused request buffer
+        largeWrites.add(copy(buffer));
+        stats.directWrite++;
+        wait.incrementAndGet();
+        scheduleFlush();
+    }
+
+
+    protected void readThread() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    handleFrame(readFrame());
+                } catch (Exception e) {
+                    die("Cant read answer", e);
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            die("Cant init thread", e);
+        }
+    }
+
+
+    /**
+     * Completes the future of the response.
+     *
+     * @param frame response without its size prefix, only valid until the next read
+     */
+    protected void handleFrame(ByteBuffer frame) {
+        readHeader(frame);
+        FutureImpl<?> future = futures.remove(responseSync);
+        stats.received++;
+        wait.decrementAndGet();
+        if (future != null) {
+            if (inFlight != null) {
+                releaseInFlight(future);
+            }
+            DataDecoder<?> decoder = future.getDataDecoder();
+            if (keepsFrame(decoder)) {
+                // decoded data refers to the frame, which is overwritten by the next read
+                ByteBuffer copy = copyFrame(frame);
+                readBody(copy, decoder);
+                if (body[Key.DATA.getId()] == null) {
+                    releaseFrame(copy);
+                }
+            } else {
+                readBody(frame, decoder);
+            }
+            complete(responseCode, future);
+        }
+    }
+
+    /**
+     * Reads and handles the responses which have arrived. Event loop only.
+     */
+    protected void readAvailable() throws IOException {
+        ByteBufferInputStream in = (ByteBufferInputStream) cis;
+        in.readAvailable();
+        while (in.hasFrame()) {
+            handleFrame(in.readFrame());
+        }
+    }
+
+    /**
+     * Writes what the ring holds without blocking, queuing pending requests there first,
+     * then the requests too large for the ring. Grows the ring once it is written if producers found it full.
+     * Event loop only.
+     *
+     * @param writeBuffer direct buffer of the event loop the heap buffers are written through
+     * @return {@code false} if the channel is full, so the rest is to be written once it is writable
+     */
+    protected boolean flush(ByteBuffer writeBuffer) throws IOException {
+        flushScheduled.set(false);
+        if (!writeLock.tryLock()) {
+            // a virtual thread is writing, it schedules a flush when it is over
+            return true;
+        }
+        long written = 0;
+        try {
+            if (partialPacket != null) {
+                if (!writeAvailable(partialPacket, writeBuffer)) {
+                    return false;
+                }
+                partialPacket = null;
+            }
+            if (deferredRequest != null || !pendingRequests.isEmpty()) {
+                queuePending();
+            }
+            while (!ring.isEmpty()) {
+                int n = write(ring.peek(), writeBuffer);
+                if (n == 0) {
+                    // the rest of the ring, which may start in the middle of a packet, goes first next time
+                    return false;
+                }
+                ring.consume(n);
+                written += n;
+            }
+            if (ring.grow() && deferredRequest != null) {
+                // the request may fit now
+                scheduleFlush();
+            }
+            ByteBuffer packet;
+            while ((packet = largeWrites.poll()) != null) {
+                if (!writeAvailable(packet, writeBuffer)) {
+                    partialPacket = packet;
+                    return false;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+            if (written > 0) {
+                stats.sharedWrites++;
+                stats.sharedWrittenBytes += written;
+                stats.sharedMaxBatchSize = Math.max(stats.sharedMaxBatchSize, written);
+            }
+        }
+        return ring.isEmpty() && largeWrites.isEmpty();
+    }
+
+    /**
+     * Writes as much of the buffer as the channel takes without blocking.
+     *
+     * @return {@code true} if the buffer is written completely
+     */
+    protected boolean writeAvailable(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.write(buffer);
+            if (n < 0) {
+                throw new SocketException("write failed code: " + n);
+            } else if (n == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes as much of the buffer through the direct one as the channel takes without blocking.
+     *
+     * @return {@code true} if the buffer is written completely
+     */
+    protected boolean writeAvailable(ByteBuffer buffer, ByteBuffer writeBuffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (write(buffer, writeBuffer) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes up to the size of the direct buffer without blocking, copying heap bytes into it first.
+     *
+     * @return number of bytes written, the position of the buffer is moved over them
+     */
+    protected int write(ByteBuffer buffer, ByteBuffer writeBuffer) throws IOException {
+        int n;
+        if (buffer.isDirect()) {
+            n = channel.write(buffer);
+        } else {
+            ByteBuffer chunk = buffer.duplicate();
+            chunk.limit(chunk.position() + Math.min(chunk.remaining(), writeBuffer.capacity()));
+            writeBuffer.clear();
+            writeBuffer.put(chunk);
+            writeBuffer.flip();
+            n = channel.write(writeBuffer);
+            if (n > 0) {
+                buffer.position(buffer.position() + n);
+            }
+        }
+        if (n < 0) {
+            throw new SocketException("write failed code: " + n);
+        }
+        return n;
+    }
+
+    /**
+     * Moves queued requests for which there is room in flight into the ring. Event loop only.
+     */
+    protected void queuePending() {
+        if (deferredRequest != null) {
+            if (!ring.offer(deferredRequest.packets)) {
+                return;
+            }
+            deferredRequest = null;
+            wait.incrementAndGet();
+        }
+        PendingRequest request;
+        while ((request = pendingRequests.peek()) != null &&
+                inFlight.tryAcquire(request.ops.size(), request.packets.remaining())) {
+            if (!pendingRequests.remove(request)) {
+                // failed by die() meanwhile
+                inFlight.release(request.ops.size(), request.packets.remaining());
+                continue;
+            }
+            for (FutureImpl<?> q : request.ops) {
+                q.inFlight = true;
+            }
+            if (register(request.ops)) {
+                if (!ring.offer(request.packets)) {
+                    deferredRequest = request;
+                    return;
+                }
+                wait.incrementAndGet();
+            }
+        }
+    }
+
+    protected void writeThread() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                awaitPublished();
+                if (config.writeCoalesceMicros > 0) {
+                    awaitBatch();
+                }
+                long written = 0;
+                writeLock.lock();
+                try {
+                    writePartialPacket();
+                    while (!ring.isEmpty()) {
+                        ByteBuffer region = ring.peek();
+                        int length = region.remaining();
+                        writeFully(channel, region);
+                        ring.consume(length);
+                        written += length;
+                    }
+                } finally {
+                    writeLock.unlock();
+                }
+                stats.sharedWrites++;
+                stats.sharedWrittenBytes += written;
+                stats.sharedMaxBatchSize = Math.max(stats.sharedMaxBatchSize, written);
+                if (!pendingRequests.isEmpty()) {
+                    sendPending();
+                }
+            } catch (Exception e) {
+                die("Cant write bytes", e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lets more requests join the ones published until {@link TarantoolClientConfig#writeCoalesceMicros}
+     * pass since the first of them or {@link TarantoolClientConfig#writeCoalesceBytes} accumulate.
+     * The producer which fills the batch up unparks the writer.
+     */
+    protected void awaitBatch() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(config.writeCoalesceMicros);
+        writerCoalescing = true;
+        try {
+            long remaining;
+            while (ring.size() < config.writeCoalesceBytes && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            writerCoalescing = false;
+        }
+    }
+
+    /**
+     * Waits with {@link TarantoolClientConfig#writerWaitStrategy} until requests are published to the ring
+     * or a virtual thread leaves a partial packet.
+     * A blocking strategy parks the writer, which producers unpark when they see it parked.
+     */
+    protected void awaitPublished() throws InterruptedException {
+        WaitStrategy strategy = config.writerWaitStrategy;
+        for (int attempt = 0; ring.isEmpty() && partialPacket == null && !isPendingSendable(); attempt++) {
+            if (strategy.isBlocking()) {
+                writerParked = true;
+                if (ring.isEmpty() && partialPacket == null && !isPendingSendable()) {
+                    strategy.idle(attempt);
+                }
+                writerParked = false;
+            } else {
+                strategy.idle(attempt);
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+
+    protected void fail(FutureImpl<?> q, Exception e) {
+        q.setError(e);
+    }
+
+    protected void complete(long code, FutureImpl<?> q) {
+        if (q != null) {
+            if (code == 0) {
+                Object data = body[Key.DATA.getId()];
+                if(q.getCode() == Code.EXECUTE && q.getDataDecoder() == null) {
+                    completeSql(q, (List<List<?>>) data);
+                } else {
+                    ((FutureImpl)q).setValue(data);
+                }
+            } else {
+                Object error = body[Key.ERROR.getId()];
+                fail(q, serverError(code, error));
+            }
+        }
+    }
+
+    protected void completeSql(FutureImpl<?> q, List<List<?>> data) {
+        Long rowCount = getSqlRowCount();
+        if (rowCount!=null) {
+            ((FutureImpl) q).setValue(rowCount);
+        } else {
+            List<Map<String, Object>> values = readSqlResult(data);
+            ((FutureImpl) q).setValue(values);
+        }
+    }
+
+
+    protected <T> T syncGet(Future<T> r) {
+        try {
+            return r.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CommunicationException) {
+                throw (CommunicationException) e.getCause();
+            } else if (e.getCause() instanceof TarantoolException) {
+                throw (TarantoolException) e.getCause();
+            } else {
+                throw new IllegalStateException(e.getCause());
+            }
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    protected void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        long code = 0;
+        while (buffer.remaining() > 0 && (code = channel.write(buffer)) > -1) {
+        }
+        if (code < 0) {
+            throw new SocketException("write failed code: " + code);
+        }
+    }
+
+
+    @Override
+    public void close() {
+        close(new Exception("Connection is closed."));
+        try {
+            state.awaitState(StateHelper.CLOSED);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    protected void close(Exception e) {
+        if (state.close()) {
+            connector.interrupt();
+            Thread thread = reconnecting;
+            if (thread != null) {
+                thread.interrupt();
+            }
+
+            die(e.getMessage(), e);
+        }
+    }
+
+    protected void stopIO() {
+        if (eventLoop != null) {
+            eventLoop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    detach();
+                }
+            });
+            return;
+        }
+        if (reader != null) {
+            reader.interrupt();
+        }
+        if (writer != null) {
+            writer.interrupt();
+        }
+        closeInput();
+        closeChannel(channel);
+    }
+
+    protected void closeInput() {
+        if (is != null) {
+            try {
+                is.close();
+            } catch (IOException ignored) {
+
+            }
+        }
+        if (cis != null) {
+            try {
+                cis.close();
+            } catch (IOException ignored) {
+
+            }
+        }
+    }
+
+    @Override
+    public boolean isAlive() {
+        return state.getState() == StateHelper.ALIVE && thumbstone == null;
+    }
+
+    @Override
+    public void waitAlive() throws InterruptedException {
+        state.awaitState(StateHelper.ALIVE);
+    }
+
+    @Override
+    public boolean waitAlive(long timeout, TimeUnit unit) throws InterruptedException {
+        return state.awaitState(StateHelper.ALIVE, timeout, unit);
+    }
+
+    @Override
+    public TarantoolClientOps<Integer, List<?>, Object, List<?>> syncOps() {
+        return syncOps;
+    }
+
+    @Override
+    public TarantoolClientOps<Integer, List<?>, Object, Future<List<?>>> asyncOps() {
+        return (TarantoolClientOps)this;
+    }
+
+    @Override
+    public TarantoolClientOps<Integer, List<?>, Object, Long> fireAndForgetOps() {
+        return fireAndForgetOps;
+    }
+
+    /**
+     * Asynchronous operations which return the DATA of responses undecoded.
+     * Tuples and keys may be passed as {@link RawMsgPack} to be sent without re-encoding.
+     */
+    public TarantoolClientOps<Integer, Object, Object, Future<RawMsgPack>> rawAsyncOps() {
+        return rawAsyncOps;
+    }
+
+    /**
+     * Asynchronous operations which decode the tuples of responses with the codec.
+     * Objects other than lists passed as tuples are encoded with the codec as well.
+     */
+    public <T> TarantoolClientOps<Integer, Object, Object, Future<List<T>>> asyncOps(Codec<T> codec) {
+        return new CodecAsyncOps<T>(codec);
+    }
+
+    /**
+     * Asynchronous operations which return stages to compose continuations with instead of blocking on futures.
+     * Stages are completed in {@link TarantoolClientConfig#completionExecutor}, so continuations do not hold up
+     * the reader thread or the event loop.
+     */
+    @SuppressWarnings("Since15")
+    public TarantoolClientOps<Integer, List<?>, Object, CompletionStage<List<?>>> stageOps() {
+        return new StageOps();
+    }
+
+    /**
+     * Synchronous operations which decode the tuples of responses with the codec.
+     * Objects other than lists passed as tuples are encoded with the codec as well.
+     */
+    public <T> TarantoolClientOps<Integer, Object, Object, List<T>> syncOps(Codec<T> codec) {
+        return new CodecSyncOps<T>(new CodecAsyncOps<T>(codec));
+    }
+
+
+    @Override
+    public TarantoolSQLOps<Object, Long, List<Map<String, Object>>> sqlSyncOps() {
+        return new TarantoolSQLOps<Object, Long, List<Map<String,Object>>>() {
+
+            @Override
+            public Long update(String sql, Object... bind) {
+                return (Long) syncGet(exec(Code.EXECUTE, Key.SQL_TEXT, sql, Key.SQL_BIND, bind));
+            }
+
+            @Override
+            public List<Map<String, Object>> query(String sql, Object... bind) {
+                return (List<Map<String, Object>>) syncGet(exec(Code.EXECUTE, Key.SQL_TEXT, sql, Key.SQL_BIND, bind));
+            }
+        };
+    }
+
+    @Override
+    public TarantoolSQLOps<Object, Future<Long>, Future<List<Map<String, Object>>>> sqlAsyncOps() {
+        return new TarantoolSQLOps<Object, Future<Long>, Future<List<Map<String,Object>>>>() {
+            @Override
+            public Future<Long> update(String sql, Object... bind) {
+                return (Future<Long>) exec(Code.EXECUTE, Key.SQL_TEXT, sql, Key.SQL_BIND, bind);
+            }
+
+            @Override
+            public Future<List<Map<String, Object>>> query(String sql, Object... bind) {
+                return (Future<List<Map<String, Object>>>) exec(Code.EXECUTE, Key.SQL_TEXT, sql, Key.SQL_BIND, bind);
+            }
+        };
+    }
+
+    protected static class PendingRequest {
+        protected final List<FutureImpl<?>> ops;
+        protected final ByteBuffer packets;
+
+        protected PendingRequest(List<FutureImpl<?>> ops, ByteBuffer packets) {
+            this.ops = ops;
+            this.packets = packets;
+        }
+    }
+
+    protected class SyncOps extends AbstractTarantoolOps<Integer, List<?>, Object, List<?>> {
+
+        @Override
+        public List exec(Code code, Object... args) {
+            return (List) syncGet(TarantoolClientImpl.this.exec(code, args));
+        }
+
+        @Override
+        public void close() {
+            throw new IllegalStateException("You should close TarantoolClient instead.");
+        }
+    }
+
+    protected class RawAsyncOps extends AbstractTarantoolOps<Integer, Object, Object, Future<RawMsgPack>> {
+        @Override
+        public Future<RawMsgPack> exec(Code code, Object... args) {
+            return (Future<RawMsgPack>) TarantoolClientImpl.this.exec(RawMsgPack.DECODER, code, args);
+        }
+
+        @Override
+        public void close() {
+            throw new IllegalStateException("You should close TarantoolClient instead.");
+        }
+    }
+
+    @SuppressWarnings("Since15")
+    protected class StageOps extends AbstractTarantoolOps<Integer, List<?>, Object, CompletionStage<List<?>>> {
+        protected final Executor executor = config.completionExecutor != null ?
+                config.completionExecutor : ForkJoinPool.commonPool();
+
+        protected StageOps() {
+            if (config.useNewCall) {
+                setCallCode(Code.CALL);
+            }
+        }
+
+        @Override
+        public CompletionStage<List<?>> exec(Code code, Object... args) {
+            validateArgs(args);
+            // the cluster client retries its own kind of futures
+            FutureImpl<List<?>> q = (FutureImpl<List<?>>) makeFuture(syncId.incrementAndGet(), code, args);
+            StageCompletion<List<?>> completion = new StageCompletion<List<?>>(q, executor);
+            q.setOnComplete(completion);
+            submit(q, args);
+            return completion.stage;
+        }
+
+        @Override
+        public void close() {
+            throw new IllegalStateException("You should close TarantoolClient instead.");
+        }
+    }
+
+    /**
+     * Completes the stage with the outcome of the future. Run first by the thread completing the future,
+     * it hands itself over to the executor, or completes the stage in place if the executor rejects it.
+     */
+    @SuppressWarnings("Since15")
+    protected static class StageCompletion<V> implements Runnable {
+        protected final FutureImpl<V> future;
+        protected final CompletableFuture<V> stage = new CompletableFuture<V>();
+        protected final Executor executor;
+        protected boolean handedOver;
+
+        protected StageCompletion(FutureImpl<V> future, Executor executor) {
+            this.future = future;
+            this.executor = executor;
+        }
+
+        @Override
+        public void run() {
+            if (!handedOver) {
+                handedOver = true;
+                try {
+                    executor.execute(this);
+                    return;
+                } catch (RejectedExecutionException ignored) {
+
+                }
+            }
+            if (future.error != null) {
+                stage.completeExceptionally(future.error);
+            } else {
+                stage.complete(future.value);
+            }
+        }
+    }
+
+    protected class CodecAsyncOps<T> extends AbstractTarantoolOps<Integer, Object, Object, Future<List<T>>> {
+        protected final Codec<T> codec;
+        protected final DataDecoder<List<T>> decoder;
+
+        protected CodecAsyncOps(final Codec<T> codec) {
+            this.codec = codec;
+            this.decoder = new DataDecoder<List<T>>() {
+                @Override
+                public List<T> decode(MsgPackLite msgPackLite, ByteBuffer frame) {
+                    int size = msgPackLite.unpackArrayHeader(frame);
+                    List<T> tuples = new ArrayList<T>(size);
+                    for (int i = 0; i < size; i++) {
+                        tuples.add(codec.decode(msgPackLite, frame));
+                    }
+                    return tuples;
+                }
+
+                @Override
+                public boolean keepsFrame() {
+                    return false;
+                }
+            };
+            if (config.useNewCall) {
+                setCallCode(Code.CALL);
+            }
+        }
+
+        @Override
+        public Future<List<T>> exec(Code code, Object... args) {
+            Object[] encoded = args;
+            for (int i = 0; i < args.length - 1; i += 2) {
+                Object tuple = args[i + 1];
+                if (args[i] == Key.TUPLE && tuple != null && !(tuple instanceof List || tuple instanceof Object[] ||
+                        tuple instanceof RawMsgPack || tuple instanceof CodecArgument)) {
+                    if (encoded == args) {
+                        // the arguments of the caller are left as they are
+                        encoded = args.clone();
+                    }
+                    encoded[i + 1] = new CodecArgument<T>(codec, (T) tuple);
+                }
+            }
+            return (Future<List<T>>) TarantoolClientImpl.this.exec(decoder, code, encoded);
+        }
+
+        @Override
+        public void close() {
+            throw new IllegalStateException("You should close TarantoolClient instead.");
+        }
+    }
+
+    protected class CodecSyncOps<T> extends AbstractTarantoolOps<Integer, Object, Object, List<T>> {
+        protected final CodecAsyncOps<T> asyncOps;
+
+        protected CodecSyncOps(CodecAsyncOps<T> asyncOps) {
+            this.asyncOps = asyncOps;
+            if (config.useNewCall) {
+                setCallCode(Code.CALL);
+            }
+        }
+
+        @Override
+        public List<T> exec(Code code, Object... args) {
+            return syncGet(asyncOps.exec(code, args));
+        }
+
+        @Override
+        public void close() {
+            throw new IllegalStateException("You should close TarantoolClient instead.");
+        }
+    }
+
+    protected class FireAndForgetOps extends AbstractTarantoolOps<Integer, List<?>, Object, Long> {
+        @Override
+        public Long exec(Code code, Object... args) {
+            if (thumbstone == null) {
+                try {
+                    long syncId = TarantoolClientImpl.this.syncId.incrementAndGet();
+                    write(code, syncId, null, args);
+                    return syncId;
+                } catch (Exception e) {
+                    throw new CommunicationException("Execute failed", e);
+                }
+            } else {
+                throw new CommunicationException("Connection is not alive", thumbstone);
+            }
+        }
+
+        @Override
+        public void close() {
+            throw new IllegalStateException("You should close TarantoolClient instead.");
+        }
+    }
+
+    protected boolean isDead(FutureImpl<?> q) {
+        if (TarantoolClientImpl.this.thumbstone != null) {
+            fail(q, new CommunicationException("Connection is dead", thumbstone));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A subclass may use this as a trigger to start retries.
+     * This method is called when state becomes ALIVE.
+     */
+    protected void onReconnect() {
+        // No-op, override.
+    }
+
+    public Exception getThumbstone() {
+        return thumbstone;
+    }
+
+    public TarantoolClientStats getStats() {
+        if (inFlight != null) {
+            stats.inFlightRequests = inFlight.getRequests();
+            stats.inFlightBytes = inFlight.getBytes();
+            stats.pendingRequests = pendingRequests.size();
+        }
+        return stats;
+    }
+
+    /**
+     * Manages state changes.
+     */
+    protected final class StateHelper {
+        static final int READING = 1;
+        static final int WRITING = 2;
+        static final int ALIVE = READING | WRITING;
+        static final int RECONNECT = 4;
+        static final int CLOSED = 8;
+
+        private final AtomicInteger state;
+
+        private final AtomicReference<CountDownLatch> nextAliveLatch =
+            new AtomicReference<CountDownLatch>(new CountDownLatch(1));
+
+        private final CountDownLatch closedLatch = new CountDownLatch(1);
+
+        protected StateHelper(int state) {
+            this.state = new AtomicInteger(state);
+        }
+
+        protected int getState() {
+            return state.get();
+        }
+
+        protected boolean close() {
+            for (;;) {
+                int st = getState();
+                if ((st & CLOSED) == CLOSED)
+                    return false;
+                if (compareAndSet(st, (st & ~RECONNECT) | CLOSED))
+                    return true;
+            }
+        }
+
+        protected boolean acquire(int mask) {
+            for (;;) {
+                int st = getState();
+                if ((st & CLOSED) == CLOSED)
+                    return false;
+
+                if ((st & mask) != 0)
+                    throw new IllegalStateException("State is already " + mask);
+
+                if (compareAndSet(st, st | mask))
+                    return true;
+            }
+        }
+
+        protected void release(int mask) {
+            for (;;) {
+                int st = getState();
+                if (compareAndSet(st, st & ~mask))
+                    return;
+            }
+        }
+
+        protected boolean compareAndSet(int expect, int update) {
+            if (!state.compareAndSet(expect, update)) {
+                return false;
+            }
+
+            if (update == ALIVE) {
+                CountDownLatch latch = nextAliveLatch.getAndSet(new CountDownLatch(1));
+                latch.countDown();
+                onReconnect();
+            } else if (update == CLOSED) {
+                closedLatch.countDown();
+            }
+            return true;
+        }
+
+        protected void awaitState(int state) throws InterruptedException {
+            CountDownLatch latch = getStateLatch(state);
+            if (latch != null) {
+                latch.await();
+            }
+        }
+
+        protected boolean awaitState(int state, long timeout, TimeUnit timeUnit) throws InterruptedException {
+            CountDownLatch latch = getStateLatch(state);
+            return (latch == null) || latch.await(timeout, timeUnit);
+        }
+
+        private CountDownLatch getStateLatch(int state) {
+            if (state == CLOSED) {
+                return closedLatch;
+            }
+            if (state == ALIVE) {
+                if (getState() == CLOSED) {
+                    throw new IllegalStateException("State is CLOSED.");
+                }
+                CountDownLatch latch = nextAliveLatch.get();
+                /* It may happen so that an error is detected but the state is still alive.
+                 Wait for the 'next' alive state in such cases. */
+                return  (getState() == ALIVE && thumbstone == null) ? null : latch;
+            }
+            return null;
+        }
+    }
+}
@@ -5,7 +5,10 @@ public class TarantoolClientStats {
     public long buffered;
     public long received;
     public long sharedWrites;
+    public long sharedWrittenBytes;
+    public long sharedMaxBatchSize;
     public long directWrite;
+    public long virtualThreadWrites;
     public long directMaxPacketSize;
     public long sharedMaxPacketSize;
     public long directPacketSizeGrowth;
@@ -14,6 +17,15 @@ public class TarantoolClientStats {
     public long sharedWriteLockTimeouts;
     public long directWriteLockTimeouts;
     public long sharedEmptyAwaitTimeouts;
+    public long inFlightWaits;
+    public long inFlightRejects;
+    public long inFlightQueued;
+    /**
+     * Occupancy of the in-flight limits as of the last {@link TarantoolClientImpl#getStats()}
+     */
+    public long inFlightRequests;
+    public long inFlightBytes;
+    public long pendingRequests;
 
     @Override
     public String toString() {
@@ -30,6 +42,16 @@ public class TarantoolClientStats {
                 "\ndirectWriteLockTimeouts = " + directWriteLockTimeouts +
                 "\nsharedWriteLockTimeouts = " + sharedWriteLockTimeouts +
                 "\ndirectWrite = " + directWrite +
-                "\nsharedWrites = " + sharedWrites + "\n";
+                "\nvirtualThreadWrites = " + virtualThreadWrites +
+                "\ninFlightRequests = " + inFlightRequests +
+                "\ninFlightBytes = " + inFlightBytes +
+                "\npendingRequests = " + pendingRequests +
+                "\ninFlightWaits = " + inFlightWaits +
+                "\ninFlightRejects = " + inFlightRejects +
+                "\ninFlightQueued = " + inFlightQueued +
+                "\nsharedWrites = " + sharedWrites +
+                "\nsharedAvgBatchSize = " + (sharedWrites == 0 ? 0 : sharedWrittenBytes / sharedWrites) +
+                "\nsharedAvgBatchPackets = " + (sharedWrites == 0 ? 0 : buffered / sharedWrites) +
+                "\nsharedMaxBatchSize = " + sharedMaxBatchSize + "\n";
     }
 }
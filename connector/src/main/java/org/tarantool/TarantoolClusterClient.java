@@ -55,25 +55,12 @@ public class TarantoolClusterClient extends TarantoolClientImpl {
         return false;
     }
 
+    /**
+     * Prepared requests are sent as regular ones so they could be retried.
+     */
     @Override
-    public Future<?> exec(Code code, Object... args) {
-        validateArgs(args);
-        FutureImpl<?> q = makeFuture(syncId.incrementAndGet(), code, args);
-        if (isDead(q)) {
-            return q;
-        }
-        futures.put(q.getId(), q);
-        if (isDead(q)) {
-            futures.remove(q.getId());
-            return q;
-        }
-        try {
-            write(code, q.getId(), null, args);
-        } catch (Exception e) {
-            futures.remove(q.getId());
-            fail(q, e);
-        }
-        return q;
+    protected Future<?> exec(PreparedRequest request, Object argument) {
+        return exec(null, request.getCode(), request.getArgs(argument));
     }
 
     @Override
@@ -117,6 +104,7 @@ public class TarantoolClusterClient extends TarantoolClientImpl {
         return false;
     }
 
+    @Override
     protected FutureImpl<?> makeFuture(long id, Code code, Object...args) {
         return new ExpirableOp(id,
             ((TarantoolClusterClientConfig)config).operationExpiryTimeMillis,
@@ -141,11 +129,11 @@ public class TarantoolClusterClient extends TarantoolClientImpl {
                 executor.execute(new Runnable() {
                     @Override
                     public void run() {
-                        futures.put(fut.getId(), fut);
+                        futures.put(fut);
                         try {
                             write(fut.getCode(), fut.getId(), null, fut.getArgs());
                         } catch (Exception e) {
-                            futures.remove(fut.getId());
+                            futures.remove(fut);
                             fail(fut, e);
                         }
                     }
@@ -6,6 +6,8 @@ import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketException;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
 import java.util.List;
 import java.util.Map;
 
@@ -13,7 +15,11 @@ public class TarantoolConnection extends TarantoolBase<List<?>> implements Taran
     protected InputStream in;
     protected OutputStream out;
     protected Socket socket;
-
+    protected SocketChannel channel;
+    /**
+     * Reused for every request, grows to the largest one sent so far
+     */
+    protected ByteBuffer requestBuffer = ByteBuffer.allocate(initialRequestSize);
 
     public TarantoolConnection(String username, String password, Socket socket) throws IOException {
         super(username, password, socket);
@@ -22,18 +28,33 @@ public class TarantoolConnection extends TarantoolBase<List<?>> implements Taran
         this.in = socket.getInputStream();
     }
 
+    /**
+     * Connects over a channel in blocking mode, such as a Unix domain socket opened
+     * with {@link UnixSocketChannelProvider#open(String)}. Socket timeouts are not supported then.
+     */
+    public TarantoolConnection(String username, String password, SocketChannel channel) {
+        this(username, password, Channels.newInputStream(channel), Channels.newOutputStream(channel), channel);
+    }
+
+    private TarantoolConnection(String username, String password, InputStream in, OutputStream out,
+                                SocketChannel channel) {
+        super(username, password, in, out);
+        this.channel = channel;
+        this.out = out;
+        this.in = in;
+    }
+
     @Override
     protected List<?> exec(Code code, Object... args) {
         try {
-            ByteBuffer packet = createPacket(code, syncId.incrementAndGet(), null, args);
-            out.write(packet.array(), 0, packet.remaining());
+            ByteBuffer packet = requestBuffer = createPacket(requestBuffer, code, syncId.incrementAndGet(), null, args);
+            out.write(packet.array(), packet.arrayOffset(), packet.remaining());
             out.flush();
-            readPacket(is);
-            Long c = (Long) headers.get(Key.CODE.getId());
-            if (c == 0) {
-                return (List) body.get(Key.DATA.getId());
+            readPacket();
+            if (responseCode == 0) {
+                return (List) body[Key.DATA.getId()];
             } else {
-                throw serverError(c, body.get(Key.ERROR.getId()));
+                throw serverError(responseCode, body[Key.ERROR.getId()]);
             }
         } catch (IOException e) {
             close();
@@ -55,7 +76,11 @@ public class TarantoolConnection extends TarantoolBase<List<?>> implements Taran
 
     public void close() {
         try {
-            socket.close();
+            if (socket != null) {
+                socket.close();
+            } else if (channel != null) {
+                channel.close();
+            }
         } catch (IOException ignored) {
 
         }
@@ -71,7 +96,7 @@ public class TarantoolConnection extends TarantoolBase<List<?>> implements Taran
     @Override
     public List<Map<String, Object>> query(String sql, Object... bind) {
         sql(sql, bind);
-        return readSqlResult((List<List<?>>) body.get(Key.DATA));
+        return readSqlResult((List<List<?>>) body[Key.DATA.getId()]);
     }
 
     protected void sql(String sql, Object[] bind) {
@@ -79,16 +104,22 @@ public class TarantoolConnection extends TarantoolBase<List<?>> implements Taran
     }
 
     public boolean isClosed() {
-        return socket.isClosed();
+        return socket != null ? socket.isClosed() : !channel.isOpen();
     }
 
     /**
      * Sets given timeout value on underlying socket.
      *
      * @param timeout Timeout in milliseconds.
-     * @throws SocketException If failed.
+     * @throws SocketException If failed or if the connection is not a socket and the timeout is not zero.
      */
     public void setSocketTimeout(int timeout) throws SocketException {
+        if (socket == null) {
+            if (timeout != 0) {
+                throw new SocketException("Timeouts are not supported over channels");
+            }
+            return;
+        }
         socket.setSoTimeout(timeout);
     }
 
@@ -99,6 +130,6 @@ public class TarantoolConnection extends TarantoolBase<List<?>> implements Taran
      * @throws SocketException If failed.
      */
     public int getSocketTimeout() throws SocketException {
-        return socket.getSoTimeout();
+        return socket != null ? socket.getSoTimeout() : 0;
     }
 }
@@ -0,0 +1,216 @@
+package org.tarantool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Selector threads shared by many clients instead of a reader and a writer thread per client.
+ *
+ * Every connection is assigned to one of the event loops round robin and is read and written there
+ * without blocking. Reconnects of all clients run in a shared pool whose threads only live while
+ * some client is reconnecting, and arrays responses are copied into may be taken from a shared {@link FramePool}.
+ * The rings requests are queued in start small and on the heap, every event loop writing them
+ * through a single direct buffer of its own.
+ * The group outlives its clients, so it is to be {@link #shutdown() shut down} after closing all of them.
+ *
+ * @see TarantoolClientConfig#eventLoopGroup
+ */
+public class TarantoolEventLoopGroup {
+    public static final int DEFAULT_READ_BUFFER_SIZE = 64 * 1024;
+    public static final int DEFAULT_WRITE_RING_SIZE = 64 * 1024;
+    /**
+     * Size of the direct buffer every event loop writes through
+     */
+    public static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    protected final EventLoop[] loops;
+    protected final AtomicInteger next = new AtomicInteger();
+    protected final ExecutorService connector;
+    protected final int readBufferSize;
+    protected final int writeRingSize;
+    protected final FramePool framePool;
+
+    public TarantoolEventLoopGroup(int threads) {
+        this(threads, DEFAULT_READ_BUFFER_SIZE, null);
+    }
+
+    public TarantoolEventLoopGroup(int threads, int readBufferSize, FramePool framePool) {
+        this(threads, readBufferSize, DEFAULT_WRITE_RING_SIZE, framePool);
+    }
+
+    /**
+     * @param threads        number of event loops
+     * @param readBufferSize initial size of the buffer of every connection, which grows for larger responses
+     * @param writeRingSize  initial size of the ring of every client, which grows up to
+     *                       {@link TarantoolClientConfig#sharedBufferSize} when it is found full
+     * @param framePool      pool for clients which do not configure their own or {@code null}
+     */
+    public TarantoolEventLoopGroup(int threads, int readBufferSize, int writeRingSize, FramePool framePool) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads should be positive");
+        }
+        this.readBufferSize = readBufferSize;
+        this.writeRingSize = writeRingSize;
+        this.framePool = framePool;
+        this.connector = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "Tarantool connector");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.loops = new EventLoop[threads];
+        for (int i = 0; i < threads; i++) {
+            try {
+                loops[i] = new EventLoop("Tarantool event loop " + i);
+            } catch (IOException e) {
+                shutdown();
+                throw new CommunicationException("Couldn't open selector", e);
+            }
+            loops[i].thread.start();
+        }
+    }
+
+    public int getReadBufferSize() {
+        return readBufferSize;
+    }
+
+    public int getWriteRingSize() {
+        return writeRingSize;
+    }
+
+    public FramePool getFramePool() {
+        return framePool;
+    }
+
+    protected EventLoop next() {
+        return loops[(next.getAndIncrement() & Integer.MAX_VALUE) % loops.length];
+    }
+
+    protected void reconnect(Runnable task) {
+        connector.execute(task);
+    }
+
+    /**
+     * Stops the event loops and the reconnects in progress.
+     */
+    public void shutdown() {
+        connector.shutdownNow();
+        for (EventLoop loop : loops) {
+            if (loop != null) {
+                loop.thread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Selector thread reading and writing the channels of the clients registered in it.
+     * Clients hand tasks and flushes over through queues and wake the selector up.
+     */
+    protected static class EventLoop implements Runnable {
+        protected final Selector selector;
+        protected final Thread thread;
+        protected final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+        protected final Queue<TarantoolClientImpl> flushes = new ConcurrentLinkedQueue<TarantoolClientImpl>();
+        /**
+         * Heap buffers of all clients are written through it, which keeps the channels from caching
+         * direct buffers of the size of the largest write
+         */
+        protected final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+        protected EventLoop(String name) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+
+        protected void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        protected void flush(TarantoolClientImpl client) {
+            flushes.add(client);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        selector.select();
+                    } catch (IOException e) {
+                        continue;
+                    }
+                    runTasks();
+                    processKeys();
+                    TarantoolClientImpl client;
+                    while ((client = flushes.poll()) != null) {
+                        flush(client, client.selectionKey);
+                    }
+                }
+            } finally {
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+
+                }
+            }
+        }
+
+        protected void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        protected void processKeys() {
+            java.util.Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                TarantoolClientImpl client = (TarantoolClientImpl) key.attachment();
+                if (key.isValid() && key.isReadable()) {
+                    try {
+                        client.readAvailable();
+                    } catch (Exception e) {
+                        client.die("Cant read answer", e);
+                    }
+                }
+                if (key.isValid() && key.isWritable()) {
+                    flush(client, key);
+                }
+            }
+        }
+
+        /**
+         * Writes what the client has queued and waits for the channel to become writable if it is full.
+         *
+         * @param key key of the channel or {@code null} if it is not registered yet, which flushes it again then
+         */
+        protected void flush(TarantoolClientImpl client, SelectionKey key) {
+            try {
+                boolean flushed = client.flush(writeBuffer);
+                if (key != null && key.isValid()) {
+                    key.interestOps(flushed ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+            } catch (Exception e) {
+                client.die("Cant write bytes", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.tarantool;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Operations collected to be sent together: they are encoded back to back into one buffer,
+ * which is handed to the writer in one step on {@link #execute()}.
+ * A pipeline is used by a single thread and executed once.
+ *
+ * @see TarantoolClientImpl#pipeline()
+ */
+public class TarantoolPipeline extends AbstractTarantoolOps<Integer, List<?>, Object, Future<List<?>>> {
+    protected final TarantoolClientImpl client;
+    protected final List<FutureImpl<?>> ops = new ArrayList<FutureImpl<?>>();
+    protected final AggregateFuture aggregate = new AggregateFuture(ops);
+    protected ByteBuffer buffer;
+    protected boolean executed;
+
+    public TarantoolPipeline(TarantoolClientImpl client) {
+        this.client = client;
+        this.buffer = ByteBuffer.allocate(client.initialRequestSize);
+    }
+
+    /**
+     * @return future of the operation, which completes after the pipeline is executed
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Future<List<?>> exec(Code code, Object... args) {
+        if (executed) {
+            throw new IllegalStateException("Pipeline is already executed");
+        }
+        client.validateArgs(args);
+        FutureImpl<List<?>> q = (FutureImpl<List<?>>) client.makeFuture(client.syncId.incrementAndGet(), code, args);
+        q.setOnComplete(aggregate);
+        int start = buffer.position();
+        buffer = client.appendPacket(buffer, code, q.getId(), null, args);
+        q.requestSize = buffer.position() - start;
+        ops.add(q);
+        return q;
+    }
+
+    /**
+     * @return number of operations collected so far
+     */
+    public int size() {
+        return ops.size();
+    }
+
+    /**
+     * Sends all the operations collected.
+     *
+     * @return future of the results of all the operations in their order,
+     * failed with the error of the first operation which failed once all of them complete
+     */
+    public Future<List<?>> execute() {
+        if (executed) {
+            throw new IllegalStateException("Pipeline is already executed");
+        }
+        executed = true;
+        aggregate.remaining.set(ops.size());
+        if (ops.isEmpty()) {
+            aggregate.setValue(new ArrayList<Object>(0));
+        } else {
+            buffer.flip();
+            client.exec(ops, buffer);
+        }
+        return aggregate;
+    }
+
+    @Override
+    public void close() {
+        throw new IllegalStateException("You should close TarantoolClient instead.");
+    }
+
+    protected static class AggregateFuture extends FutureImpl<List<?>> implements Runnable {
+        protected final List<FutureImpl<?>> ops;
+        protected final AtomicInteger remaining = new AtomicInteger();
+
+        protected AggregateFuture(List<FutureImpl<?>> ops) {
+            super(0, (Code) null);
+            this.ops = ops;
+        }
+
+        /**
+         * Counts an operation of the pipeline down, completing the aggregate after the last of them.
+         */
+        @Override
+        public void run() {
+            if (remaining.decrementAndGet() != 0) {
+                return;
+            }
+            List<Object> values = new ArrayList<Object>(ops.size());
+            for (FutureImpl<?> op : ops) {
+                if (op.error != null) {
+                    setError(op.error);
+                    return;
+                }
+                values.add(op.value);
+            }
+            setValue(values);
+        }
+    }
+}
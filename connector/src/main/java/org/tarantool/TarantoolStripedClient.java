@@ -0,0 +1,304 @@
+package org.tarantool;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client keeping several connections to the same instance, each with a reader and a writer of its own,
+ * so that decoding and writing are not limited to a single thread each.
+ *
+ * Requests are spread across the connections according to {@link Balancing}. Responses to requests sent
+ * through different connections may arrive in any order, {@link Balancing#KEY_AFFINITY} keeps requests
+ * on the same key in order. Every connection is a {@link TarantoolClientImpl} with the same configuration,
+ * so buffers and limits of the configuration apply to each of them.
+ */
+public class TarantoolStripedClient implements TarantoolClient {
+    public enum Balancing {
+        /**
+         * Connections in turn
+         */
+        ROUND_ROBIN,
+        /**
+         * Connection with the fewest requests waiting for responses
+         */
+        LEAST_OUTSTANDING,
+        /**
+         * Connection chosen by the first part of the key or, for inserts and replaces, by the first field
+         * of the tuple, which keeps requests on the same primary key in order as long as it comes first.
+         * Requests without a key go round robin
+         */
+        KEY_AFFINITY
+    }
+
+    protected final TarantoolClientConfig config;
+    protected final TarantoolClientImpl[] stripes;
+    protected final Balancing balancing;
+    protected final AtomicInteger next = new AtomicInteger();
+
+    protected final SyncOps syncOps;
+    protected final AsyncOps asyncOps;
+    protected final FireAndForgetOps fireAndForgetOps;
+
+    /**
+     * @param socketProvider provider of a new channel to the same instance for every connection
+     * @param stripes        number of connections
+     */
+    public TarantoolStripedClient(SocketChannelProvider socketProvider, TarantoolClientConfig config,
+                                  int stripes, Balancing balancing) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Number of stripes should be positive");
+        }
+        this.config = config;
+        this.balancing = balancing;
+        this.stripes = new TarantoolClientImpl[stripes];
+        try {
+            for (int i = 0; i < stripes; i++) {
+                this.stripes[i] = new TarantoolClientImpl(socketProvider, config);
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        this.syncOps = new SyncOps();
+        this.asyncOps = new AsyncOps();
+        this.fireAndForgetOps = new FireAndForgetOps();
+        if (config.useNewCall) {
+            this.syncOps.setCallCode(Code.CALL);
+            this.asyncOps.setCallCode(Code.CALL);
+            this.fireAndForgetOps.setCallCode(Code.CALL);
+        }
+    }
+
+    /**
+     * Chooses the connection for the request.
+     */
+    protected TarantoolClientImpl stripe(Code code, Object... args) {
+        switch (balancing) {
+        case KEY_AFFINITY:
+            Object key = affinityKey(code, args);
+            if (key != null) {
+                return stripes[(hash(key) & Integer.MAX_VALUE) % stripes.length];
+            }
+            return nextAlive();
+        case LEAST_OUTSTANDING:
+            int start = next.getAndIncrement() & Integer.MAX_VALUE;
+            TarantoolClientImpl least = null;
+            for (int i = 0; i < stripes.length; i++) {
+                TarantoolClientImpl stripe = stripes[(start + i) % stripes.length];
+                if (stripe.isAlive() && (least == null || stripe.wait.get() < least.wait.get())) {
+                    least = stripe;
+                }
+            }
+            return least == null ? stripes[start % stripes.length] : least;
+        default:
+            return nextAlive();
+        }
+    }
+
+    /**
+     * @return next alive connection in turn, or just the next one if none is alive
+     */
+    protected TarantoolClientImpl nextAlive() {
+        int start = next.getAndIncrement() & Integer.MAX_VALUE;
+        for (int i = 0; i < stripes.length; i++) {
+            TarantoolClientImpl stripe = stripes[(start + i) % stripes.length];
+            if (stripe.isAlive()) {
+                return stripe;
+            }
+        }
+        return stripes[start % stripes.length];
+    }
+
+    /**
+     * @return first part of the key of the request, or the first field of the tuple for inserts and replaces,
+     * {@code null} if there is neither
+     */
+    protected Object affinityKey(Code code, Object[] args) {
+        Object tuple = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i] == Key.KEY) {
+                return first(args[i + 1]);
+            } else if (args[i] == Key.TUPLE && (code == Code.INSERT || code == Code.REPLACE)) {
+                tuple = args[i + 1];
+            }
+        }
+        return tuple == null ? null : first(tuple);
+    }
+
+    protected Object first(Object value) {
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            return list.isEmpty() ? null : list.get(0);
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            return array.length == 0 ? null : array[0];
+        }
+        return value;
+    }
+
+    /**
+     * Hashes integers by value whatever their boxed type, since keys and tuples may box them differently.
+     */
+    protected int hash(Object key) {
+        if (key instanceof Number && !(key instanceof Double || key instanceof Float)) {
+            long value = ((Number) key).longValue();
+            return (int) (value ^ (value >>> 32));
+        } else if (key instanceof byte[]) {
+            return Arrays.hashCode((byte[]) key);
+        }
+        return key.hashCode();
+    }
+
+    @Override
+    public TarantoolClientOps<Integer, List<?>, Object, List<?>> syncOps() {
+        return syncOps;
+    }
+
+    @Override
+    public TarantoolClientOps<Integer, List<?>, Object, Future<List<?>>> asyncOps() {
+        return asyncOps;
+    }
+
+    /**
+     * @see TarantoolClientImpl#stageOps()
+     */
+    @SuppressWarnings("Since15")
+    public TarantoolClientOps<Integer, List<?>, Object, CompletionStage<List<?>>> stageOps() {
+        return new StageOps();
+    }
+
+    @Override
+    public TarantoolClientOps<Integer, List<?>, Object, Long> fireAndForgetOps() {
+        return fireAndForgetOps;
+    }
+
+    @Override
+    public TarantoolSQLOps<Object, Long, List<Map<String, Object>>> sqlSyncOps() {
+        return new TarantoolSQLOps<Object, Long, List<Map<String, Object>>>() {
+            @Override
+            public Long update(String sql, Object... bind) {
+                return stripe(Code.EXECUTE).sqlSyncOps().update(sql, bind);
+            }
+
+            @Override
+            public List<Map<String, Object>> query(String sql, Object... bind) {
+                return stripe(Code.EXECUTE).sqlSyncOps().query(sql, bind);
+            }
+        };
+    }
+
+    @Override
+    public TarantoolSQLOps<Object, Future<Long>, Future<List<Map<String, Object>>>> sqlAsyncOps() {
+        return new TarantoolSQLOps<Object, Future<Long>, Future<List<Map<String, Object>>>>() {
+            @Override
+            public Future<Long> update(String sql, Object... bind) {
+                return stripe(Code.EXECUTE).sqlAsyncOps().update(sql, bind);
+            }
+
+            @Override
+            public Future<List<Map<String, Object>>> query(String sql, Object... bind) {
+                return stripe(Code.EXECUTE).sqlAsyncOps().query(sql, bind);
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        for (TarantoolClientImpl stripe : stripes) {
+            if (stripe != null) {
+                stripe.close();
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if all the connections are alive
+     */
+    @Override
+    public boolean isAlive() {
+        for (TarantoolClientImpl stripe : stripes) {
+            if (!stripe.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void waitAlive() throws InterruptedException {
+        for (TarantoolClientImpl stripe : stripes) {
+            stripe.waitAlive();
+        }
+    }
+
+    @Override
+    public boolean waitAlive(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (TarantoolClientImpl stripe : stripes) {
+            if (!stripe.waitAlive(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected class SyncOps extends AbstractTarantoolOps<Integer, List<?>, Object, List<?>> {
+        @Override
+        public List exec(Code code, Object... args) {
+            return stripe(code, args).syncOps.exec(code, args);
+        }
+
+        @Override
+        public void close() {
+            throw new IllegalStateException("You should close TarantoolClient instead.");
+        }
+    }
+
+    protected class AsyncOps extends AbstractTarantoolOps<Integer, List<?>, Object, Future<List<?>>> {
+        @Override
+        public Future<List<?>> exec(Code code, Object... args) {
+            return (Future<List<?>>) stripe(code, args).exec(code, args);
+        }
+
+        @Override
+        public void close() {
+            throw new IllegalStateException("You should close TarantoolClient instead.");
+        }
+    }
+
+    @SuppressWarnings("Since15")
+    protected class StageOps extends AbstractTarantoolOps<Integer, List<?>, Object, CompletionStage<List<?>>> {
+        protected StageOps() {
+            if (config.useNewCall) {
+                setCallCode(Code.CALL);
+            }
+        }
+
+        @Override
+        public CompletionStage<List<?>> exec(Code code, Object... args) {
+            return ((TarantoolClientImpl.StageOps) stripe(code, args).stageOps()).exec(code, args);
+        }
+
+        @Override
+        public void close() {
+            throw new IllegalStateException("You should close TarantoolClient instead.");
+        }
+    }
+
+    protected class FireAndForgetOps extends AbstractTarantoolOps<Integer, List<?>, Object, Long> {
+        @Override
+        public Long exec(Code code, Object... args) {
+            return stripe(code, args).fireAndForgetOps.exec(code, args);
+        }
+
+        @Override
+        public void close() {
+            throw new IllegalStateException("You should close TarantoolClient instead.");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.tarantool;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+
+/**
+ * Read-only view of a tuple backed by the raw MsgPack bytes of a response.
+ *
+ * Fields are decoded only when accessed, so reading a couple of fields of a wide
+ * tuple does not materialize the rest of it. The view keeps the whole response frame
+ * reachable and is not safe for concurrent use.
+ */
+public class TarantoolTuple extends AbstractList<Object> {
+    protected final MsgPackLite msgPackLite;
+    protected final ByteBuffer buffer;
+    protected final int[] offsets;
+
+    /**
+     * Creates a view over the array at the current position of the buffer
+     * and moves the position past it.
+     *
+     * @param msgPackLite codec to decode fields with
+     * @param buffer      buffer positioned at the header of a MsgPack array
+     */
+    public TarantoolTuple(MsgPackLite msgPackLite, ByteBuffer buffer) {
+        this.msgPackLite = msgPackLite;
+        this.offsets = new int[msgPackLite.unpackArrayHeader(buffer)];
+        this.buffer = buffer.duplicate();
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = buffer.position();
+            msgPackLite.skip(buffer);
+        }
+    }
+
+    @Override
+    public int size() {
+        return offsets.length;
+    }
+
+    @Override
+    public Object get(int index) {
+        return msgPackLite.unpack(seek(index));
+    }
+
+    public long getLong(int index) {
+        return msgPackLite.unpackLong(seek(index));
+    }
+
+    public String getString(int index) {
+        return msgPackLite.unpackString(seek(index));
+    }
+
+    /**
+     * @return content of a binary or string field, {@code null} for nil
+     */
+    public byte[] getBytes(int index) {
+        return msgPackLite.unpackBytes(seek(index));
+    }
+
+    /**
+     * Positions the backing buffer at the field.
+     *
+     * @param index index of the field
+     * @return backing buffer positioned at the field
+     */
+    protected ByteBuffer seek(int index) {
+        if (index < 0 || index >= offsets.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + offsets.length);
+        }
+        buffer.position(offsets[index]);
+        return buffer;
+    }
+}
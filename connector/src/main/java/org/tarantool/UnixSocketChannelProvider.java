@@ -0,0 +1,175 @@
+package org.tarantool;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.SocketAddress;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Connects to a Tarantool instance on the same host through its Unix domain socket,
+ * which saves the latency and CPU the loopback TCP path costs.
+ * To be used with {@link TarantoolClientImpl}, see {@link #open(String)} for {@link TarantoolConnection}.
+ *
+ * Requires {@code java.net.UnixDomainSocketAddress}, that is Java 16 or newer,
+ * it is looked up reflectively so that the connector still runs on older versions.
+ */
+public class UnixSocketChannelProvider implements SocketChannelProvider {
+    /** Factory of Unix domain socket addresses or {@code null} if the runtime has none. */
+    private static final Method ADDRESS_FACTORY = findAddressFactory();
+
+    /** Path of the socket file. */
+    private final String path;
+    /** Timeout to wait for the socket to accept connections, 0 is infinite. */
+    private int timeout;
+    /** Limit of retries. */
+    private int retriesLimit = -1; // No-limit.
+    /** Pause between attempts to connect, ms. */
+    private long retryDelay = 100;
+
+    /**
+     * @param path path of the socket file, as in {@code box.cfg{listen = '/var/run/tarantool/app.sock'}}
+     * @throws UnsupportedOperationException if the runtime does not support Unix domain sockets
+     */
+    public UnixSocketChannelProvider(String path) {
+        if (path == null || path.isEmpty())
+            throw new IllegalArgumentException("path is null or empty.");
+        checkSupported();
+        this.path = path;
+    }
+
+    /**
+     * @return {@code true} if the runtime supports Unix domain sockets
+     */
+    public static boolean isSupported() {
+        return ADDRESS_FACTORY != null;
+    }
+
+    /**
+     * Connects a channel in blocking mode to the socket file.
+     *
+     * @param path path of the socket file
+     * @return connected channel
+     * @throws IOException if failed to connect
+     * @throws UnsupportedOperationException if the runtime does not support Unix domain sockets
+     */
+    public static SocketChannel open(String path) throws IOException {
+        checkSupported();
+        SocketAddress address;
+        try {
+            address = (SocketAddress) ADDRESS_FACTORY.invoke(null, path);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalArgumentException("Invalid socket path: " + path, e.getCause());
+        }
+        // the protocol family of the channel follows the address
+        return SocketChannel.open(address);
+    }
+
+    private static void checkSupported() {
+        if (!isSupported())
+            throw new UnsupportedOperationException("Unix domain sockets require Java 16 or newer.");
+    }
+
+    private static Method findAddressFactory() {
+        try {
+            return Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", String.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return Path of the socket file.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Sets maximum amount of time to wait for the socket to accept connections,
+     * e.g. while the instance is restarting.
+     *
+     * Zero means infinite timeout.
+     *
+     * @param timeout Timeout value, ms.
+     * @return {@code this}.
+     * @throws IllegalArgumentException If timeout is negative.
+     */
+    public UnixSocketChannelProvider setTimeout(int timeout) {
+        if (timeout < 0)
+            throw new IllegalArgumentException("timeout is negative.");
+
+        this.timeout = timeout;
+
+        return this;
+    }
+
+    /**
+     * @return Maximum amount of time to wait for the socket to accept connections.
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets maximum amount of reconnect attempts to be made before an exception is raised.
+     *
+     * Negative value means unlimited.
+     *
+     * @param retriesLimit Limit of retries to use.
+     * @return {@code this}.
+     */
+    public UnixSocketChannelProvider setRetriesLimit(int retriesLimit) {
+        this.retriesLimit = retriesLimit;
+
+        return this;
+    }
+
+    /**
+     * @return Maximum reconnect attempts to make before raising exception.
+     */
+    public int getRetriesLimit() {
+        return retriesLimit;
+    }
+
+    /**
+     * Sets the pause between attempts to connect while the socket does not accept connections.
+     *
+     * @param retryDelay Pause, ms.
+     * @return {@code this}.
+     */
+    public UnixSocketChannelProvider setRetryDelay(long retryDelay) {
+        if (retryDelay < 0)
+            throw new IllegalArgumentException("retryDelay is negative.");
+
+        this.retryDelay = retryDelay;
+
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SocketChannel get(int retryNumber, Throwable lastError) {
+        if (retriesLimit >= 0 && retryNumber >= retriesLimit) {
+            throw new CommunicationException("Connection retries exceeded.", lastError);
+        }
+        long deadline = System.currentTimeMillis() + timeout;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                return open(path);
+            } catch (IOException e) {
+                if (timeout > 0 && deadline <= System.currentTimeMillis()) {
+                    throw new CommunicationException("Connection time out.", e);
+                }
+                try {
+                    Thread.sleep(retryDelay);
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        throw new CommunicationException("Thread interrupted.", new InterruptedException());
+    }
+}
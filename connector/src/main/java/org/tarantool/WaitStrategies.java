@@ -0,0 +1,121 @@
+package org.tarantool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wait strategies from the cheapest in CPU to the quickest to notice new work.
+ * All but {@link #BLOCKING} keep the waiting thread on a core, so they pay off only when
+ * there is a core to spare for every such thread.
+ */
+public class WaitStrategies {
+    /**
+     * Parks until woken up, the reader waits in a selector. Costs a thread wake-up when work arrives.
+     */
+    public static final WaitStrategy BLOCKING = new Blocking();
+    /**
+     * Yields for a while, then sleeps for 100 microseconds at a time.
+     */
+    public static final WaitStrategy SLEEPING = new Sleeping(100, TimeUnit.MICROSECONDS.toNanos(100));
+    /**
+     * Spins for a while, then yields the core to other threads.
+     */
+    public static final WaitStrategy YIELDING = new Yielding(100);
+    /**
+     * Never gives the core away, spinning longer between checks the longer there is no work.
+     */
+    public static final WaitStrategy BUSY_SPIN = new BusySpin(1024);
+
+    public static class Blocking implements WaitStrategy {
+        @Override
+        public void idle(int attempt) {
+            LockSupport.park(this);
+        }
+
+        @Override
+        public boolean isBlocking() {
+            return true;
+        }
+    }
+
+    public static class Sleeping implements WaitStrategy {
+        protected final int yields;
+        protected final long sleepNanos;
+
+        /**
+         * @param yields     number of attempts to yield before sleeping
+         * @param sleepNanos time to sleep on every following attempt
+         */
+        public Sleeping(int yields, long sleepNanos) {
+            this.yields = yields;
+            this.sleepNanos = sleepNanos;
+        }
+
+        @Override
+        public void idle(int attempt) {
+            if (attempt < yields) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(this, sleepNanos);
+            }
+        }
+
+        @Override
+        public boolean isBlocking() {
+            return false;
+        }
+    }
+
+    public static class Yielding implements WaitStrategy {
+        protected final int spins;
+
+        /**
+         * @param spins number of attempts to return right away before yielding
+         */
+        public Yielding(int spins) {
+            this.spins = spins;
+        }
+
+        @Override
+        public void idle(int attempt) {
+            if (attempt >= spins) {
+                Thread.yield();
+            }
+        }
+
+        @Override
+        public boolean isBlocking() {
+            return false;
+        }
+    }
+
+    public static class BusySpin implements WaitStrategy {
+        protected static volatile int sink;
+        protected final int maxSpins;
+
+        /**
+         * @param maxSpins largest number of spin iterations per attempt, which double from 1
+         */
+        public BusySpin(int maxSpins) {
+            this.maxSpins = maxSpins;
+        }
+
+        @Override
+        public void idle(int attempt) {
+            int spins = attempt < 31 ? Math.min(1 << attempt, maxSpins) : maxSpins;
+            int x = attempt;
+            for (int i = 0; i < spins; i++) {
+                x = x * 31 + i;
+            }
+            // keeps the loop from being optimized away, the write itself is next to never taken
+            if (x == Integer.MIN_VALUE) {
+                sink = x;
+            }
+        }
+
+        @Override
+        public boolean isBlocking() {
+            return false;
+        }
+    }
+}
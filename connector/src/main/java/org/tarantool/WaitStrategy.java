@@ -0,0 +1,23 @@
+package org.tarantool;
+
+/**
+ * How an I/O thread of the client waits for work: the writer for requests, the reader for response bytes.
+ *
+ * @see WaitStrategies
+ * @see TarantoolClientConfig#writerWaitStrategy
+ * @see TarantoolClientConfig#readerWaitStrategy
+ */
+public interface WaitStrategy {
+    /**
+     * Waits once. Called in a loop, which checks for work and the interrupt status between the calls.
+     *
+     * @param attempt number of calls since the thread ran out of work, starting from 0
+     */
+    void idle(int attempt);
+
+    /**
+     * @return {@code true} if {@link #idle(int)} blocks until the thread is woken up by whoever gives it work,
+     * rather than returning after some time by itself
+     */
+    boolean isBlocking();
+}
@@ -0,0 +1,277 @@
+package org.tarantool;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Byte ring requests are queued in for the writer thread, with many producers and a single consumer.
+ *
+ * A producer claims space for its packet with a CAS, copies the packet in without holding any lock
+ * and publishes it. Packets are published in the order they were claimed, so the consumer always sees
+ * a contiguous region of whole packets, which it writes to the channel straight from the ring.
+ * A producer which is done before the packets claimed earlier does not wait for them: it records
+ * its packet in a small table of completions, and whoever publishes the packet before it
+ * publishes the recorded ones as well. So a producer descheduled while copying delays
+ * the packets claimed after it, but not the threads which queued them.
+ * Positions are the total number of bytes ever claimed, published and consumed,
+ * the offset in the ring being the position modulo the capacity.
+ *
+ * A ring may start smaller than its maximum capacity, then the consumer {@link #grow() grows} it
+ * once producers have found it full and it is empty.
+ */
+public class WriteRing {
+    protected static final int COMPLETION_SLOTS = 256;
+    protected static final int COMPLETION_PROBES = 8;
+
+    /**
+     * Replaced by a larger one only while no space can be claimed, the capacity is the one of the buffer
+     */
+    protected volatile ByteBuffer buffer;
+    protected final int maxCapacity;
+    protected final boolean direct;
+    /**
+     * Set by producers which have not found enough free space since the ring last grew
+     */
+    protected volatile boolean full;
+    protected final AtomicLong claimed = new AtomicLong();
+    protected final AtomicLong published = new AtomicLong();
+    protected volatile long consumed;
+    /**
+     * Packets copied before the ones claimed earlier, start position plus one, zero for a free slot
+     * or {@code -1} for a slot being taken
+     */
+    protected final AtomicLongArray completedStarts = new AtomicLongArray(COMPLETION_SLOTS);
+    protected final AtomicLongArray completedEnds = new AtomicLongArray(COMPLETION_SLOTS);
+    /**
+     * Producers parked by {@link #awaitTurn(long, long)} by the start position of their packets
+     */
+    protected final ConcurrentMap<Long, Thread> waiters = new ConcurrentHashMap<Long, Thread>();
+
+    public WriteRing(int capacity) {
+        this(capacity, capacity, true);
+    }
+
+    /**
+     * @param initialCapacity capacity the ring starts with
+     * @param maxCapacity     capacity the ring may grow to
+     * @param direct          whether the ring is off the heap, which lets the channel write it without a copy
+     */
+    public WriteRing(int initialCapacity, int maxCapacity, boolean direct) {
+        if (initialCapacity > maxCapacity) {
+            throw new IllegalArgumentException("Initial capacity " + initialCapacity + " exceeds " + maxCapacity);
+        }
+        this.buffer = allocate(initialCapacity, direct);
+        this.maxCapacity = maxCapacity;
+        this.direct = direct;
+    }
+
+    protected static ByteBuffer allocate(int capacity, boolean direct) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    public int maxCapacity() {
+        return maxCapacity;
+    }
+
+    /**
+     * Queues the remaining bytes of the packet.
+     *
+     * @return {@code false} if there is not enough free space for the packet at the moment
+     */
+    public boolean offer(ByteBuffer packet) {
+        int length = packet.remaining();
+        if (length > maxCapacity) {
+            throw new IllegalArgumentException("Packet of " + length + " bytes is larger than the ring of " + maxCapacity);
+        }
+        long position;
+        do {
+            position = claimed.get();
+            // read after the claimed position, which is frozen while the buffer is replaced
+            int capacity = capacity();
+            if (position + length - consumed > capacity) {
+                if (capacity < maxCapacity) {
+                    full = true;
+                }
+                return false;
+            }
+        } while (!claimed.compareAndSet(position, position + length));
+        copy(position, packet);
+        publish(position, position + length);
+        return true;
+    }
+
+    protected void copy(long position, ByteBuffer packet) {
+        ByteBuffer target = buffer.duplicate();
+        int capacity = target.capacity();
+        int offset = (int) (position % capacity);
+        int length = packet.remaining();
+        if (offset + length <= capacity) {
+            target.position(offset);
+            target.put(packet);
+        } else {
+            ByteBuffer head = packet.duplicate();
+            head.limit(head.position() + capacity - offset);
+            target.position(offset);
+            target.put(head);
+            packet.position(head.limit());
+            target.clear();
+            target.put(packet);
+        }
+    }
+
+    /**
+     * Publishes the packet if the packets claimed earlier are published, otherwise leaves it
+     * to whoever publishes them. Waits only while the table of completions is full.
+     */
+    protected void publish(long position, long end) {
+        if (!published.compareAndSet(position, end) && !complete(position, end)) {
+            awaitTurn(position, end);
+        }
+        // the packets claimed earlier may have been published meanwhile, as well as the ones recorded after this
+        publishCompleted();
+    }
+
+    /**
+     * Parks until the packets claimed earlier are published, whoever publishes up to the position unparks it.
+     * Spinning instead would keep the producers holding the earlier packets off the processor.
+     */
+    protected void awaitTurn(long position, long end) {
+        waiters.put(position, Thread.currentThread());
+        try {
+            while (!published.compareAndSet(position, end) && !complete(position, end)) {
+                LockSupport.park(this);
+            }
+        } finally {
+            waiters.remove(position);
+        }
+    }
+
+    /**
+     * Records a packet which is copied but waits for the packets claimed earlier.
+     *
+     * @return {@code false} if there is no free slot for it
+     */
+    protected boolean complete(long position, long end) {
+        int hash = hash(position);
+        for (int i = 0; i < COMPLETION_PROBES; i++) {
+            int slot = (hash + i) & (COMPLETION_SLOTS - 1);
+            // the slot is taken before the end is set, so that the end of another packet cannot overwrite it
+            if (completedStarts.get(slot) == 0 && completedStarts.compareAndSet(slot, 0, -1)) {
+                completedEnds.set(slot, end);
+                completedStarts.set(slot, position + 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the published position over recorded packets for as long as they follow one another.
+     */
+    protected void publishCompleted() {
+        while (true) {
+            long position = published.get();
+            int slot = findCompleted(position);
+            if (slot < 0) {
+                Thread waiter = waiters.get(position);
+                if (waiter != null) {
+                    LockSupport.unpark(waiter);
+                }
+                return;
+            }
+            long end = completedEnds.get(slot);
+            if (published.compareAndSet(position, end)) {
+                completedStarts.set(slot, 0);
+            }
+        }
+    }
+
+    /**
+     * @return slot of the packet recorded at the position or {@code -1} if there is none.
+     * Every probe is checked as slots are freed in any order
+     */
+    protected int findCompleted(long position) {
+        int hash = hash(position);
+        for (int i = 0; i < COMPLETION_PROBES; i++) {
+            int slot = (hash + i) & (COMPLETION_SLOTS - 1);
+            if (completedStarts.get(slot) == position + 1) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    protected static int hash(long position) {
+        return (int) ((position * 0x9E3779B97F4A7C15L) >>> 40);
+    }
+
+    public boolean isEmpty() {
+        return consumed == published.get();
+    }
+
+    /**
+     * @return number of bytes published but not consumed yet
+     */
+    public long size() {
+        return published.get() - consumed;
+    }
+
+    /**
+     * @return region of published bytes which are contiguous in the ring, empty if there are none.
+     * It has to be {@link #consume(int) consumed} before the next call
+     */
+    public ByteBuffer peek() {
+        long from = consumed;
+        ByteBuffer region = buffer.duplicate();
+        int capacity = region.capacity();
+        int offset = (int) (from % capacity);
+        int length = (int) Math.min(published.get() - from, capacity - offset);
+        region.limit(offset + length);
+        region.position(offset);
+        return region;
+    }
+
+    /**
+     * Frees the space of bytes obtained from {@link #peek()} once they are written. Consumer thread only.
+     */
+    public void consume(int length) {
+        consumed += length;
+    }
+
+    /**
+     * Doubles the capacity, up to the maximum one, if producers have found the ring full and it is empty now.
+     * Consumer thread only.
+     *
+     * @return {@code true} if the ring has grown
+     */
+    public boolean grow() {
+        ByteBuffer current = buffer;
+        if (!full || current.capacity() >= maxCapacity) {
+            return false;
+        }
+        long position = consumed;
+        // nothing is claimed but not consumed, and no producer can claim space until the position is restored
+        if (!claimed.compareAndSet(position, position + maxCapacity + 1)) {
+            return false;
+        }
+        full = false;
+        buffer = allocate((int) Math.min(2L * current.capacity(), maxCapacity), direct);
+        claimed.set(position);
+        return true;
+    }
+
+    /**
+     * Drops whatever is published but not written yet. Consumer thread only.
+     */
+    public void discard() {
+        consumed = published.get();
+    }
+}
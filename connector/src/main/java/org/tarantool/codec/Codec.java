@@ -0,0 +1,35 @@
+package org.tarantool.codec;
+
+import java.nio.ByteBuffer;
+
+import org.tarantool.MsgPackLite;
+
+/**
+ * Converts objects to tuples and back without building intermediate lists.
+ *
+ * Implementations are usually generated for {@link Tuple} classes.
+ *
+ * @param <T> type of the objects
+ * @see org.tarantool.TarantoolClientImpl#asyncOps(Codec)
+ */
+public interface Codec<T> {
+    /**
+     * Packs the object as a MsgPack array.
+     *
+     * @param msgPackLite codec to pack fields with
+     * @param value       object to pack
+     * @param buffer      destination buffer in write mode
+     * @return buffer holding the tuple, either the given one or its grown copy
+     */
+    ByteBuffer encode(MsgPackLite msgPackLite, T value, ByteBuffer buffer);
+
+    /**
+     * Unpacks the array at the current position of the buffer and moves the position past it.
+     * Tuple fields which are not mapped are skipped, missing ones leave the defaults.
+     *
+     * @param msgPackLite codec to unpack fields with
+     * @param buffer      buffer positioned at the header of a MsgPack array
+     * @return unpacked object
+     */
+    T decode(MsgPackLite msgPackLite, ByteBuffer buffer);
+}
@@ -0,0 +1,32 @@
+package org.tarantool.codec;
+
+import java.nio.ByteBuffer;
+
+import org.tarantool.MsgPackLite;
+
+/**
+ * Object passed as a request argument together with the codec packing it,
+ * so that {@link MsgPackLite#pack(Object, ByteBuffer)} encodes it straight into the request buffer.
+ *
+ * @param <T> type of the object
+ */
+public class CodecArgument<T> {
+    protected final Codec<T> codec;
+    protected final T value;
+
+    public CodecArgument(Codec<T> codec, T value) {
+        this.codec = codec;
+        this.value = value;
+    }
+
+    /**
+     * @see Codec#encode(MsgPackLite, Object, ByteBuffer)
+     */
+    public ByteBuffer encode(MsgPackLite msgPackLite, ByteBuffer buffer) {
+        return codec.encode(msgPackLite, value, buffer);
+    }
+
+    public T getValue() {
+        return value;
+    }
+}
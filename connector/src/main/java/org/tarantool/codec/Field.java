@@ -0,0 +1,20 @@
+package org.tarantool.codec;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maps a field of a {@link Tuple} class to a tuple field.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface Field {
+    /**
+     * @return zero-based index of the tuple field
+     */
+    int value();
+}
@@ -0,0 +1,21 @@
+package org.tarantool.codec;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class mapped to a tuple.
+ *
+ * {@link TupleCodecProcessor} generates a {@link Codec} named after the class with the {@code Codec}
+ * suffix ({@code Outer_NestedCodec} for nested classes) in the same package.
+ * The class needs a non-private no-argument constructor. Mapped fields are marked with {@link Field}
+ * and are accessed directly unless they are private, in which case a getter and a setter are required.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Tuple {
+}
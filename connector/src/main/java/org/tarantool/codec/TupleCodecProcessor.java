@@ -0,0 +1,294 @@
+package org.tarantool.codec;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a {@link Codec} for every class annotated with {@link Tuple}.
+ *
+ * Fields are read and written with the typed methods of {@link org.tarantool.MsgPackLite}
+ * where there is one, so integers, strings and binaries are neither boxed nor looked up reflectively.
+ * The processor is registered as a service and runs whenever the connector is on the compile classpath.
+ */
+@SupportedAnnotationTypes("org.tarantool.codec.Tuple")
+public class TupleCodecProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Tuple.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error("@Tuple is only applicable to classes", element);
+                continue;
+            }
+            try {
+                generate((TypeElement) element);
+            } catch (IOException e) {
+                error("Cannot write codec: " + e.getMessage(), element);
+            }
+        }
+        return true;
+    }
+
+    protected void generate(TypeElement type) throws IOException {
+        if (!isInstantiable(type)) {
+            return;
+        }
+        SortedMap<Integer, VariableElement> fields = new TreeMap<Integer, VariableElement>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Field mapping = field.getAnnotation(Field.class);
+            if (mapping == null) {
+                continue;
+            }
+            if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.FINAL)) {
+                error("@Field is not applicable to static or final fields", field);
+            } else if (mapping.value() < 0) {
+                error("Tuple field index must not be negative", field);
+            } else if (fields.containsKey(mapping.value())) {
+                error("Tuple field " + mapping.value() + " is already mapped to " +
+                        fields.get(mapping.value()).getSimpleName(), field);
+            } else {
+                fields.put(mapping.value(), field);
+            }
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String className = type.getQualifiedName().toString();
+        String codecName = codecName(type);
+        StringWriter source = new StringWriter();
+        PrintWriter out = new PrintWriter(source);
+        try {
+            if (packageName.length() != 0) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("import java.nio.ByteBuffer;");
+            out.println();
+            out.println("import org.tarantool.MsgPackLite;");
+            out.println("import org.tarantool.codec.Codec;");
+            out.println();
+            out.println("/**");
+            out.println(" * Generated by {@link " + TupleCodecProcessor.class.getName() + "} from {@link " + className + "}.");
+            out.println(" */");
+            out.println("public class " + codecName + " implements Codec<" + className + "> {");
+            out.println("    @Override");
+            out.println("    public ByteBuffer encode(MsgPackLite msgPackLite, " + className + " value, ByteBuffer buffer) {");
+            int size = fields.isEmpty() ? 0 : fields.lastKey() + 1;
+            out.println("        buffer = msgPackLite.packArrayHeader(" + size + ", buffer);");
+            for (int i = 0; i < size; i++) {
+                VariableElement field = fields.get(i);
+                if (field == null) {
+                    out.println("        buffer = msgPackLite.pack(null, buffer);");
+                } else {
+                    out.println("        buffer = " + encoder(field.asType(), getter(type, field)) + ";");
+                }
+            }
+            out.println("        return buffer;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    @SuppressWarnings(\"unchecked\")");
+            out.println("    public " + className + " decode(MsgPackLite msgPackLite, ByteBuffer buffer) {");
+            out.println("        int size = msgPackLite.unpackArrayHeader(buffer);");
+            out.println("        " + className + " value = new " + className + "();");
+            for (int i = 0; i < size; i++) {
+                VariableElement field = fields.get(i);
+                out.println("        if (size > " + i + ") {");
+                if (field == null) {
+                    out.println("            msgPackLite.skip(buffer);");
+                } else {
+                    out.println("            " + setter(type, field, decoder(field)) + ";");
+                }
+                out.println("        }");
+            }
+            out.println("        for (int i = " + size + "; i < size; i++) {");
+            out.println("            msgPackLite.skip(buffer);");
+            out.println("        }");
+            out.println("        return value;");
+            out.println("    }");
+            out.println("}");
+        } finally {
+            out.close();
+        }
+
+        String name = packageName.length() == 0 ? codecName : packageName + "." + codecName;
+        if (processingEnv.getElementUtils().getTypeElement(name) != null) {
+            String previous = readGenerated(packageName, codecName);
+            if (previous != null) {
+                // incremental builds pass the codec generated last time among the sources,
+                // creating it again fails or, with javac 8, crashes the compiler
+                if (!previous.equals(source.toString())) {
+                    error("Codec " + name + " is out of date, clean the build", type);
+                }
+                return;
+            }
+        }
+        Writer writer = processingEnv.getFiler().createSourceFile(name, type).openWriter();
+        try {
+            writer.write(source.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * @return source of the codec generated by a previous build or {@code null} if there is none
+     */
+    protected String readGenerated(String packageName, String codecName) {
+        try {
+            return processingEnv.getFiler().getResource(StandardLocation.SOURCE_OUTPUT, packageName, codecName + ".java")
+                    .getCharContent(true).toString();
+        } catch (IOException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    protected boolean isInstantiable(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.PRIVATE) || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            error("@Tuple class must not be private or abstract", type);
+            return false;
+        }
+        if (type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC)) {
+            error("@Tuple class must be static if nested", type);
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        error("@Tuple class needs a non-private constructor without arguments", type);
+        return false;
+    }
+
+    protected String codecName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName()).append("Codec");
+        for (Element outer = type.getEnclosingElement(); outer instanceof TypeElement; outer = outer.getEnclosingElement()) {
+            name.insert(0, '_').insert(0, outer.getSimpleName());
+        }
+        return name.toString();
+    }
+
+    protected String encoder(TypeMirror type, String value) {
+        switch (type.getKind()) {
+        case LONG:
+        case INT:
+        case SHORT:
+        case BYTE:
+            return "msgPackLite.packLong(" + value + ", buffer)";
+        default:
+            return "msgPackLite.pack(" + value + ", buffer)";
+        }
+    }
+
+    protected String decoder(VariableElement field) {
+        TypeMirror type = field.asType();
+        switch (type.getKind()) {
+        case LONG:
+            return "msgPackLite.unpackLong(buffer)";
+        case INT:
+        case SHORT:
+        case BYTE:
+            return "(" + type + ") msgPackLite.unpackLong(buffer)";
+        case DOUBLE:
+        case FLOAT:
+            return "((Number) msgPackLite.unpack(buffer))." + type + "Value()";
+        case BOOLEAN:
+            return "(Boolean) msgPackLite.unpack(buffer)";
+        case ARRAY:
+            if (((ArrayType) type).getComponentType().getKind() == TypeKind.BYTE) {
+                return "msgPackLite.unpackBytes(buffer)";
+            }
+            break;
+        case DECLARED:
+            String name = processingEnv.getTypeUtils().erasure(type).toString();
+            if ("java.lang.String".equals(name)) {
+                return "msgPackLite.unpackString(buffer)";
+            } else if ("java.lang.Object".equals(name)) {
+                return "msgPackLite.unpack(buffer)";
+            } else if ("java.lang.Long".equals(name)) {
+                return "msgPackLite.unpackNil(buffer) ? null : Long.valueOf(msgPackLite.unpackLong(buffer))";
+            } else if ("java.lang.Integer".equals(name) || "java.lang.Short".equals(name) || "java.lang.Byte".equals(name)) {
+                String primitive = processingEnv.getTypeUtils().unboxedType(type).toString();
+                return "msgPackLite.unpackNil(buffer) ? null : " + name.substring("java.lang.".length()) +
+                        ".valueOf((" + primitive + ") msgPackLite.unpackLong(buffer))";
+            } else if ("java.lang.Double".equals(name) || "java.lang.Float".equals(name)) {
+                String primitive = processingEnv.getTypeUtils().unboxedType(type).toString();
+                return "msgPackLite.unpackNil(buffer) ? null : " + name.substring("java.lang.".length()) +
+                        ".valueOf(((Number) msgPackLite.unpack(buffer))." + primitive + "Value())";
+            }
+            return "(" + name + ") msgPackLite.unpack(buffer)";
+        default:
+            break;
+        }
+        error("Unsupported tuple field type " + type, field);
+        return "null";
+    }
+
+    protected String getter(TypeElement type, VariableElement field) {
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return "value." + field.getSimpleName();
+        }
+        String property = capitalize(field.getSimpleName().toString());
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            String name = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty() && !method.getModifiers().contains(Modifier.PRIVATE) &&
+                    (name.equals("get" + property) || name.equals("is" + property))) {
+                return "value." + name + "()";
+            }
+        }
+        error("Private @Field needs a non-private getter", field);
+        return "null";
+    }
+
+    protected String setter(TypeElement type, VariableElement field, String value) {
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return "value." + field.getSimpleName() + " = " + value;
+        }
+        String name = "set" + capitalize(field.getSimpleName().toString());
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == 1 &&
+                    !method.getModifiers().contains(Modifier.PRIVATE)) {
+                return "value." + name + "(" + value + ")";
+            }
+        }
+        error("Private @Field needs a non-private setter", field);
+        return "value = null";
+    }
+
+    protected String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    protected void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.channels.SocketChannel;
 import java.sql.Array;
 import java.sql.Blob;
 import java.sql.CallableStatement;
@@ -30,11 +31,13 @@ import java.util.concurrent.Executor;
 import org.tarantool.CommunicationException;
 import org.tarantool.JDBCBridge;
 import org.tarantool.TarantoolConnection;
+import org.tarantool.UnixSocketChannelProvider;
 
 import static org.tarantool.jdbc.SQLDriver.PROP_HOST;
 import static org.tarantool.jdbc.SQLDriver.PROP_PASSWORD;
 import static org.tarantool.jdbc.SQLDriver.PROP_PORT;
 import static org.tarantool.jdbc.SQLDriver.PROP_SOCKET_TIMEOUT;
+import static org.tarantool.jdbc.SQLDriver.PROP_UNIX_SOCKET;
 import static org.tarantool.jdbc.SQLDriver.PROP_USER;
 
 @SuppressWarnings("Since15")
@@ -49,17 +52,27 @@ public class SQLConnection implements Connection {
 
         String user = properties.getProperty(PROP_USER);
         String pass = properties.getProperty(PROP_PASSWORD);
+        String unixSocket = properties.getProperty(PROP_UNIX_SOCKET);
         Socket socket = null;
+        SocketChannel channel = null;
         try {
-            socket = getConnectedSocket();
-            this.connection = makeConnection(user, pass, socket);
+            if (unixSocket != null) {
+                channel = getConnectedChannel(unixSocket);
+                this.connection = makeConnection(user, pass, channel);
+            } else {
+                socket = getConnectedSocket();
+                this.connection = makeConnection(user, pass, socket);
+            }
         } catch (Exception e) {
-            if (socket != null) {
-                try {
+            try {
+                if (socket != null) {
                     socket.close();
-                } catch (IOException ignored) {
-                    // No-op.
                 }
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException ignored) {
+                // No-op.
             }
             if (e instanceof SQLException)
                 throw (SQLException)e;
@@ -108,6 +121,29 @@ public class SQLConnection implements Connection {
         return socket;
     }
 
+    /**
+     * Provides a channel connected to the Unix domain socket of a server on the same host
+     * to be used to initialize a native tarantool connection instead of a socket.
+     *
+     * Such a channel has no timeouts, so a non-zero socket timeout is rejected.
+     *
+     * @param path Path of the socket file.
+     * @return Connected channel.
+     * @throws SQLException if failed.
+     */
+    protected SocketChannel getConnectedChannel(String path) throws SQLException {
+        if (Integer.parseInt(properties.getProperty(PROP_SOCKET_TIMEOUT)) > 0) {
+            throw new SQLException("Socket timeout is not supported over Unix domain sockets.");
+        }
+        try {
+            return UnixSocketChannelProvider.open(path);
+        } catch (UnsupportedOperationException e) {
+            throw new SQLFeatureNotSupportedException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new SQLException("Couldn't connect to " + path, e);
+        }
+    }
+
     /**
      * Provides a newly connected socket instance. The method is intended to be
      * overridden to enable unit testing of the class.
@@ -138,6 +174,20 @@ public class SQLConnection implements Connection {
         }};
     }
 
+    /**
+     * Provides a native tarantool connection instance over a channel.
+     *
+     * @param user User name.
+     * @param pass Password.
+     * @param channel Connected channel.
+     * @return Native tarantool connection.
+     */
+    protected TarantoolConnection makeConnection(String user, String pass, SocketChannel channel) {
+        return new TarantoolConnection(user, pass, channel) {{
+            msgPackLite = SQLMsgPackLite.INSTANCE;
+        }};
+    }
+
     @Override
     public Statement createStatement() throws SQLException {
         checkNotClosed();
@@ -29,6 +29,7 @@ public class SQLDriver implements Driver {
     public static final String PROP_USER = "user";
     public static final String PROP_PASSWORD = "password";
     public static final String PROP_SOCKET_TIMEOUT = "socketTimeout";
+    public static final String PROP_UNIX_SOCKET = "unixSocket";
 
     // Define default values once here.
     final static Properties defaults = new Properties() {{
@@ -184,7 +185,14 @@ public class SQLDriver implements Driver {
             socketTimeout.description = "The number of milliseconds to wait before a timeout is occurred on a socket" +
                     " connect or read. The default value is 0, which means infinite timeout.";
 
-            return new DriverPropertyInfo[]{host, port, user, password, socketProvider, socketTimeout};
+            DriverPropertyInfo unixSocket = new DriverPropertyInfo(
+                    PROP_UNIX_SOCKET, properties.getProperty(PROP_UNIX_SOCKET));
+
+            unixSocket.required = false;
+            unixSocket.description = "Path of the Unix domain socket of a Tarantool server on the same host," +
+                    " used instead of the host and port if set. Requires Java 16 or newer.";
+
+            return new DriverPropertyInfo[]{host, port, user, password, socketProvider, socketTimeout, unixSocket};
         } catch (Exception e) {
             throw new SQLException(e);
         }
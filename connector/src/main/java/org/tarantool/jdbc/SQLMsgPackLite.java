@@ -0,0 +1,59 @@
+package org.tarantool.jdbc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Date;
+
+import org.tarantool.MsgPackExtensions;
+import org.tarantool.MsgPackLite;
+
+public class SQLMsgPackLite extends MsgPackLite {
+
+    /**
+     * Datetime extension which keeps the nanoseconds of {@link Timestamp} and decodes into it.
+     */
+    protected static final MsgPackExtensions.Datetime TIMESTAMP = new MsgPackExtensions.Datetime() {
+        @Override
+        protected int getNanos(java.util.Date value, long millis) {
+            return value instanceof Timestamp ? ((Timestamp) value).getNanos() : super.getNanos(value, millis);
+        }
+
+        @Override
+        protected java.util.Date toDate(long seconds, int nanos) {
+            Timestamp timestamp = new Timestamp(seconds * 1000);
+            timestamp.setNanos(nanos);
+            return timestamp;
+        }
+    };
+
+    public static final SQLMsgPackLite INSTANCE = new SQLMsgPackLite();
+
+    public SQLMsgPackLite() {
+        registerExtension(Timestamp.class, TIMESTAMP);
+    }
+
+    @Override
+    public ByteBuffer pack(Object item, ByteBuffer buffer) {
+        if(item instanceof Date) {
+            return super.pack(((Date)item).getTime(), buffer);
+        } else if(item instanceof Time) {
+            return super.pack(((Time)item).getTime(), buffer);
+        } else {
+            return super.pack(item, buffer);
+        }
+    }
+
+    @Override
+    public void pack(Object item, OutputStream os) throws IOException {
+        if(item instanceof Date) {
+            super.pack(((Date)item).getTime(), os);
+        } else if(item instanceof Time) {
+            super.pack(((Time)item).getTime(), os);
+        } else {
+            super.pack(item, os);
+        }
+    }
+}
@@ -124,7 +124,8 @@ public class SQLResultSet implements ResultSet {
 
     @Override
     public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
-        BigDecimal bigDecimal = new BigDecimal(getString(columnIndex));
+        Object raw = getRaw(columnIndex);
+        BigDecimal bigDecimal = raw instanceof BigDecimal ? (BigDecimal) raw : new BigDecimal(getString(columnIndex));
         return scale > -1 ? bigDecimal.setScale(scale) : bigDecimal;
     }
 
@@ -135,17 +136,23 @@ public class SQLResultSet implements ResultSet {
 
     @Override
     public Date getDate(int columnIndex) throws SQLException {
-        return new java.sql.Date(getLong(columnIndex));
+        return new java.sql.Date(getMillis(columnIndex));
     }
 
     @Override
     public Time getTime(int columnIndex) throws SQLException {
-        return new java.sql.Time(getLong(columnIndex));
+        return new java.sql.Time(getMillis(columnIndex));
     }
 
     @Override
     public Timestamp getTimestamp(int columnIndex) throws SQLException {
-        return new java.sql.Timestamp(getLong(columnIndex));
+        Object raw = getRaw(columnIndex);
+        return raw instanceof Timestamp ? (Timestamp) raw : new java.sql.Timestamp(getMillis(columnIndex));
+    }
+
+    private long getMillis(int columnIndex) throws SQLException {
+        Object raw = getRaw(columnIndex);
+        return raw instanceof java.util.Date ? ((java.util.Date) raw).getTime() : getLong(columnIndex);
     }
 
     @Override
@@ -0,0 +1,80 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ByteBufferInputStreamTest {
+    @Test
+    void testFramesOfAnySize() throws Exception {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.socket().bind(new InetSocketAddress("localhost", 0));
+        SocketChannel client = SocketChannel.open(server.socket().getLocalSocketAddress());
+        final SocketChannel peer = server.accept();
+        ByteBufferInputStream in = new ByteBufferInputStream(client);
+
+        int large = in.buffer.capacity() * 3 + 7;
+        final ByteBuffer packets = ByteBuffer.allocate(large + 64);
+        packets.put((byte) 3).put(new byte[] {1, 2, 3});
+        packets.put((byte) 0xce).putInt(large);
+        for (int i = 0; i < large; i++) {
+            packets.put((byte) i);
+        }
+        packets.put((byte) 0xcd).putShort((short) 2).put(new byte[] {4, 5});
+        packets.put((byte) 0xcc).put((byte) 0);
+        packets.flip();
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // dribble the prefix out to make frames straddle reads
+                    ByteBuffer head = packets.duplicate();
+                    head.limit(6);
+                    while (head.hasRemaining()) {
+                        ByteBuffer one = head.duplicate();
+                        one.limit(one.position() + 1);
+                        peer.write(one);
+                        head.position(one.position());
+                        Thread.sleep(1);
+                    }
+                    packets.position(6);
+                    while (packets.hasRemaining()) {
+                        peer.write(packets);
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        writer.start();
+        try {
+            assertFrame(in.readFrame(), 1, 2, 3);
+            ByteBuffer frame = in.readFrame();
+            assertEquals(large, frame.remaining());
+            for (int i = 0; i < large; i++) {
+                assertEquals((byte) i, frame.get());
+            }
+            assertFrame(in.readFrame(), 4, 5);
+            assertFrame(in.readFrame());
+            assertEquals(packets.limit(), in.getBytesRead());
+        } finally {
+            writer.join();
+            in.close();
+            peer.close();
+            server.close();
+        }
+    }
+
+    private static void assertFrame(ByteBuffer frame, int... bytes) throws IOException {
+        assertEquals(bytes.length, frame.remaining());
+        for (int b : bytes) {
+            assertEquals((byte) b, frame.get());
+        }
+    }
+}
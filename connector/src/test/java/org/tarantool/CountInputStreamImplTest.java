@@ -0,0 +1,56 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CountInputStreamImplTest {
+    @Test
+    void testFramesThroughSmallBuffer() throws Exception {
+        ByteBuffer packets = ByteBuffer.allocate(128);
+        packets.put(new byte[] {'h', 'i'});
+        packets.put((byte) 0xce).putInt(40);
+        for (int i = 0; i < 40; i++) {
+            packets.put((byte) i);
+        }
+        packets.put((byte) 0xcc).put((byte) 12);
+        for (int i = 0; i < 12; i++) {
+            packets.put((byte) -i);
+        }
+        packets.flip();
+        byte[] bytes = new byte[packets.remaining()];
+        packets.get(bytes);
+        final CountInputStreamImpl in = new CountInputStreamImpl(new ByteArrayInputStream(bytes), 16);
+
+        assertEquals('h', in.read());
+        assertEquals('i', in.read());
+        assertFalse(in.hasFrame());
+        ByteBuffer frame = in.readFrame();
+        assertEquals(40, frame.remaining());
+        for (int i = 0; i < 40; i++) {
+            assertEquals((byte) i, frame.get());
+        }
+        frame = in.readFrame();
+        assertEquals(12, frame.remaining());
+        for (int i = 0; i < 12; i++) {
+            assertEquals((byte) -i, frame.get());
+        }
+        assertFalse(in.hasFrame());
+        assertEquals(16, in.buffer.capacity());
+        assertEquals(bytes.length, in.getBytesRead());
+
+        assertThrows(EOFException.class, new Executable() {
+            @Override
+            public void execute() throws Throwable {
+                in.read();
+            }
+        });
+    }
+}
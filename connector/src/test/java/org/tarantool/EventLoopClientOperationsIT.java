@@ -0,0 +1,45 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.List;
+
+/**
+ * Tests for synchronous operations of {@link TarantoolClientImpl} attached to a {@link TarantoolEventLoopGroup}.
+ *
+ * Actual tests reside in base class.
+ */
+public class EventLoopClientOperationsIT extends AbstractTarantoolOpsIT {
+    private static TarantoolEventLoopGroup group;
+    private TarantoolClient client;
+
+    @BeforeAll
+    public static void setupGroup() {
+        group = new TarantoolEventLoopGroup(2);
+    }
+
+    @AfterAll
+    public static void shutdownGroup() {
+        group.shutdown();
+    }
+
+    @BeforeEach
+    public void setup() {
+        TarantoolClientConfig config = makeClientConfig();
+        config.eventLoopGroup = group;
+        client = new TarantoolClientImpl(socketChannelProvider, config);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        client.close();
+    }
+
+    @Override
+    protected TarantoolClientOps<Integer, List<?>, Object, List<?>> getOps() {
+        return client.syncOps();
+    }
+}
@@ -0,0 +1,298 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Writes requests through an event loop to a stub server which does not read until told to,
+ * so that the socket buffers fill up and the loop stops in the middle of the ring.
+ * Virtual thread writes, which stop in the middle of a packet the same way, need Java 21 and are skipped otherwise.
+ */
+class EventLoopWriteTest {
+    private static final int SOCKET_BUFFER_SIZE = 4096;
+
+    private ServerSocketChannel server;
+    private Thread acceptor;
+    private final CountDownLatch reading = new CountDownLatch(1);
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+    private TarantoolEventLoopGroup group;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = ServerSocketChannel.open();
+        server.socket().setReceiveBufferSize(SOCKET_BUFFER_SIZE);
+        server.socket().bind(new InetSocketAddress("localhost", 0));
+        acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    serve(server.accept());
+                } catch (IOException ignored) {
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        group = new TarantoolEventLoopGroup(1);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        reading.countDown();
+        server.close();
+        acceptor.join();
+        group.shutdown();
+    }
+
+    @Test
+    void testLargeRequestAfterPartialFlush() throws Exception {
+        TarantoolClientConfig config = new TarantoolClientConfig();
+        config.eventLoopGroup = group;
+        config.sharedBufferSize = 64 * 1024;
+        TarantoolClientImpl client = newClient(config);
+        try {
+            List<Future<?>> results = new ArrayList<Future<?>>();
+            for (int i = 0; i < 2; i++) {
+                results.add(client.asyncOps().eval("return ...", medium()));
+            }
+            // give the event loop time to stop in the middle of a packet
+            Thread.sleep(100);
+            assertFalse(client.ring.isEmpty());
+
+            // a request written by the calling thread would wait for the server to read
+            Thread watchdog = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(2000);
+                    } catch (InterruptedException ignored) {
+                    }
+                    reading.countDown();
+                }
+            });
+            watchdog.setDaemon(true);
+            watchdog.start();
+            char[] large = new char[40 * 1024];
+            Arrays.fill(large, 'l');
+            long start = System.nanoTime();
+            results.add(client.asyncOps().eval("return ...", new String(large)));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+            reading.countDown();
+
+            for (Future<?> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+            assertNull(error.get());
+            assertEquals(results.size(), received.get());
+            assertTrue(client.getStats().directWrite > 0);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    void testVirtualThreadWriteAfterPartialFlush() throws Exception {
+        ExecutorService executor = newVirtualThreadExecutor();
+        TarantoolClientConfig config = new TarantoolClientConfig();
+        config.eventLoopGroup = group;
+        config.sharedBufferSize = 64 * 1024;
+        config.virtualThreadWrites = true;
+        TarantoolClientImpl client = newClient(config);
+        try {
+            List<Future<?>> results = new ArrayList<Future<?>>();
+            for (int i = 0; i < 2; i++) {
+                results.add(client.asyncOps().eval("return ...", medium()));
+            }
+            Thread.sleep(100);
+            assertFalse(client.ring.isEmpty());
+
+            // goes after the ring rather than into the middle of its packet
+            List<Future<Future<?>>> evals = evalIn(executor, client, 2);
+            Thread.sleep(100);
+            reading.countDown();
+
+            for (Future<Future<?>> eval : evals) {
+                results.add(eval.get(5, TimeUnit.SECONDS));
+            }
+            for (Future<?> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+            assertNull(error.get());
+            assertEquals(results.size(), received.get());
+        } finally {
+            executor.shutdown();
+            client.close();
+        }
+    }
+
+    @Test
+    void testVirtualThreadPartialWrite() throws Exception {
+        ExecutorService executor = newVirtualThreadExecutor();
+        TarantoolClientConfig config = new TarantoolClientConfig();
+        config.sharedBufferSize = 64 * 1024;
+        config.virtualThreadWrites = true;
+        TarantoolClientImpl client = newClient(config);
+        try {
+            // the first thread leaves the rest of its packet to the writer, the others queue behind it
+            List<Future<Future<?>>> evals = evalIn(executor, client, 4);
+            Thread.sleep(100);
+            reading.countDown();
+
+            for (Future<Future<?>> eval : evals) {
+                eval.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+            }
+            assertNull(error.get());
+            assertEquals(evals.size(), received.get());
+            assertTrue(client.getStats().virtualThreadWrites > 0);
+        } finally {
+            executor.shutdown();
+            client.close();
+        }
+    }
+
+    private TarantoolClientImpl newClient(TarantoolClientConfig config) {
+        config.initTimeoutMillis = 5000;
+        return new TarantoolClientImpl(new SocketChannelProvider() {
+            @Override
+            public SocketChannel get(int retryNumber, Throwable lastError) {
+                try {
+                    SocketChannel channel = SocketChannel.open();
+                    channel.socket().setSendBufferSize(SOCKET_BUFFER_SIZE);
+                    channel.connect(server.socket().getLocalSocketAddress());
+                    return channel;
+                } catch (IOException e) {
+                    throw new CommunicationException("Cannot connect", e);
+                }
+            }
+        }, config);
+    }
+
+    /**
+     * @return request larger than the socket buffers take, smaller than a request written past the ring
+     */
+    private static String medium() {
+        char[] medium = new char[24 * 1024];
+        Arrays.fill(medium, 'm');
+        return new String(medium);
+    }
+
+    private static List<Future<Future<?>>> evalIn(ExecutorService executor, final TarantoolClientImpl client, int count) {
+        List<Future<Future<?>>> evals = new ArrayList<Future<Future<?>>>();
+        for (int i = 0; i < count; i++) {
+            evals.add(executor.submit(new Callable<Future<?>>() {
+                @Override
+                public Future<?> call() {
+                    return client.asyncOps().eval("return ...", medium());
+                }
+            }));
+        }
+        return evals;
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() throws Exception {
+        Method method;
+        try {
+            method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            method = null;
+        }
+        assumeTrue(method != null, "Virtual threads are not supported");
+        return (ExecutorService) method.invoke(null);
+    }
+
+    private void serve(SocketChannel channel) {
+        try {
+            byte[] greeting = new byte[128];
+            Arrays.fill(greeting, (byte) ' ');
+            byte[] version = "Tarantool 2.1.0 (Binary) stub".getBytes("US-ASCII");
+            System.arraycopy(version, 0, greeting, 0, version.length);
+            greeting[63] = '\n';
+            greeting[127] = '\n';
+            writeFully(channel, ByteBuffer.wrap(greeting));
+            reading.await();
+
+            MsgPackLite msgPackLite = MsgPackLite.INSTANCE;
+            ByteBuffer size = ByteBuffer.allocate(5);
+            ByteBuffer response = ByteBuffer.allocate(64);
+            while (true) {
+                size.clear();
+                readFully(channel, size);
+                size.flip();
+                if (size.get(0) != (byte) 0xce) {
+                    throw new IllegalStateException("Packet does not start with its size: " + size.get(0));
+                }
+                ByteBuffer frame = ByteBuffer.allocate(size.getInt(1));
+                readFully(channel, frame);
+                frame.flip();
+                Map<?, ?> header = (Map<?, ?>) msgPackLite.unpack(frame);
+                Map<?, ?> body = (Map<?, ?>) msgPackLite.unpack(frame);
+                if (frame.hasRemaining() || !body.containsKey(Key.EXPRESSION.getId())) {
+                    throw new IllegalStateException("Malformed packet " + header + " " + body);
+                }
+                received.incrementAndGet();
+
+                response.clear();
+                response.position(5);
+                msgPackLite.packMapHeader(2, response);
+                msgPackLite.pack(Key.CODE, response);
+                msgPackLite.packLong(0, response);
+                msgPackLite.pack(Key.SYNC, response);
+                msgPackLite.pack(header.get(Key.SYNC.getId()), response);
+                msgPackLite.packMapHeader(0, response);
+                response.put(0, (byte) 0xce);
+                response.putInt(1, response.position() - 5);
+                response.flip();
+                writeFully(channel, response);
+            }
+        } catch (IOException ignored) {
+        } catch (Throwable e) {
+            error.set(e);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Closed");
+            }
+        }
+    }
+
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FutureTableTest {
+    @Test
+    void testSlotsAndOverflow() {
+        FutureTable table = new FutureTable(3);
+        FutureImpl<?>[] futures = new FutureImpl<?>[10];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = new FutureImpl<Object>(i + 1, Code.PING);
+            table.put(futures[i]);
+        }
+        assertEquals(6, table.overflow.size());
+
+        assertSame(futures[6], table.remove(7));
+        assertNull(table.remove(7));
+        assertSame(futures[2], table.remove(3));
+        assertFalse(table.remove(futures[2]));
+        assertTrue(table.remove(futures[9]));
+        assertNull(table.remove(11));
+
+        FutureImpl<?> next = new FutureImpl<Object>(11, Code.PING);
+        table.put(next);
+        assertSame(next, table.remove(11));
+    }
+
+    @Test
+    void testRemoveAll() {
+        FutureTable table = new FutureTable(4);
+        Set<FutureImpl<?>> futures = new HashSet<FutureImpl<?>>();
+        for (int i = 0; i < 6; i++) {
+            FutureImpl<?> future = new FutureImpl<Object>(i, Code.PING);
+            futures.add(future);
+            table.put(future);
+        }
+        assertEquals(futures, new HashSet<FutureImpl<?>>(table.removeAll()));
+        assertTrue(table.removeAll().isEmpty());
+        assertNull(table.remove(5));
+    }
+}
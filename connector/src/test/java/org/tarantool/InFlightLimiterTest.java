@@ -0,0 +1,56 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InFlightLimiterTest {
+    @Test
+    void testLimitsByCountAndBytes() {
+        InFlightLimiter limiter = new InFlightLimiter(2, 100);
+        assertTrue(limiter.tryAcquire(1, 60));
+        assertFalse(limiter.tryAcquire(1, 60));
+        assertEquals(1, limiter.getRequests());
+        assertEquals(60, limiter.getBytes());
+        assertTrue(limiter.tryAcquire(1, 40));
+        assertFalse(limiter.canAcquire(1, 0));
+
+        limiter.release(2, 100);
+        assertTrue(limiter.tryAcquire(5, 500));
+        assertFalse(limiter.tryAcquire(1, 1));
+        limiter.release(5, 500);
+        assertEquals(0, limiter.getRequests());
+        assertEquals(0, limiter.getBytes());
+    }
+
+    @Test
+    void testAcquireWaitsForRelease() throws Exception {
+        final InFlightLimiter limiter = new InFlightLimiter(1, 0);
+        assertTrue(limiter.tryAcquire(1, 10));
+        assertFalse(limiter.acquire(1, 10, 10, TimeUnit.MILLISECONDS));
+
+        final AtomicBoolean acquired = new AtomicBoolean();
+        Thread waiter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    acquired.set(limiter.acquire(1, 10, 10, TimeUnit.SECONDS));
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        waiter.start();
+        while (limiter.waiters == 0) {
+            Thread.sleep(1);
+        }
+        limiter.release(1, 10);
+        waiter.join();
+        assertTrue(acquired.get());
+        assertEquals(1, limiter.getRequests());
+    }
+}
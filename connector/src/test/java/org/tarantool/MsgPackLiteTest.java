@@ -0,0 +1,265 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MsgPackLiteTest {
+    private final MsgPackLite msgPackLite = MsgPackLite.INSTANCE;
+
+    @Test
+    void testBufferPackMatchesStreamPack() throws IOException {
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            longString.append('x');
+        }
+        Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+        map.put(Key.SPACE, 512);
+        map.put("name", "value");
+
+        List<Object> values = new ArrayList<Object>();
+        values.addAll(Arrays.asList(null, true, false, 1.5f, 2.5d, Code.SELECT, Key.TUPLE));
+        values.addAll(Arrays.<Object>asList(0, 127, 128, 255, 256, 65535, 65536, 0xffffffffL, Long.MAX_VALUE));
+        values.addAll(Arrays.<Object>asList(-1, -32, -33, -128, -129, -32768, -32769, Integer.MIN_VALUE, Long.MIN_VALUE));
+        values.addAll(Arrays.<Object>asList("", "short", longString.toString(), "текст", "ascii, then ü"));
+        values.addAll(Arrays.<Object>asList(new byte[] {1, 2, 3}, new byte[300], new int[] {1, -1, 1000}));
+        values.addAll(Arrays.<Object>asList(new long[] {1, -1, 1L << 40}, new double[] {1.5, -2}, new short[] {1, -1}));
+        values.addAll(Arrays.<Object>asList(new Object[] {1, "a"}, new LinkedList<Object>(Arrays.asList(1, 2)), map));
+        values.add(Collections.nCopies(20, 1));
+        values.add(new ArrayList<Object>(values.subList(0, 10)));
+
+        for (Object value : values) {
+            assertArrayEquals(streamPack(value), bufferPack(value, 1), String.valueOf(value));
+        }
+    }
+
+    @Test
+    void testBufferGrows() {
+        List<Object> tuple = new ArrayList<Object>();
+        for (int i = 0; i < 100; i++) {
+            tuple.add("field " + i);
+        }
+        ByteBuffer initial = ByteBuffer.allocate(16);
+        ByteBuffer buffer = msgPackLite.pack(tuple, initial);
+
+        assertEquals(true, buffer.capacity() > initial.capacity());
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        assertArrayEquals(bufferPack(tuple, 4096), bytes);
+    }
+
+    @Test
+    void testBufferUnpackMatchesStreamUnpack() throws IOException {
+        Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+        map.put(Key.DATA.getId(), Arrays.asList(Arrays.asList(1, "one", new byte[] {1}), Arrays.asList(2, "two")));
+        map.put(Key.ERROR.getId(), "текст");
+
+        List<Object> values = new ArrayList<Object>();
+        values.addAll(Arrays.asList(null, true, false, 1.5f, 2.5d, "", "short", map));
+        values.addAll(Arrays.<Object>asList(0, 127, 128, 255, 256, 65535, 65536, 0xffffffffL, Long.MAX_VALUE));
+        values.addAll(Arrays.<Object>asList(-1, -32, -33, -128, -129, -32768, -32769, Integer.MIN_VALUE, Long.MIN_VALUE));
+        values.add(Collections.nCopies(20, "x"));
+
+        for (Object value : values) {
+            byte[] packed = streamPack(value);
+            ByteBuffer buffer = ByteBuffer.wrap(packed);
+            Object expected = msgPackLite.unpack(new ByteArrayInputStream(packed));
+            Object actual = msgPackLite.unpack(buffer);
+            assertEquals(expected == null ? null : expected.getClass(), actual == null ? null : actual.getClass());
+            assertArrayEquals(streamPack(expected), streamPack(actual));
+            assertEquals(packed.length, buffer.position());
+        }
+    }
+
+    @Test
+    void testByteBufferPacksRemainingBytes() throws IOException {
+        byte[] expected = bufferPack(new byte[] {3, 4, 5}, 1);
+        ByteBuffer heap = ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6});
+        heap.position(1);
+        heap = heap.slice();
+        heap.position(1);
+        heap.limit(4);
+        ByteBuffer direct = ByteBuffer.allocateDirect(6);
+        direct.put((byte) 0);
+        direct.put(heap.duplicate());
+        direct.flip();
+        direct.position(1);
+
+        for (ByteBuffer value : Arrays.asList(heap, direct)) {
+            int position = value.position();
+            assertArrayEquals(expected, bufferPack(value, 1));
+            assertArrayEquals(expected, streamPack(value));
+            assertEquals(position, value.position());
+        }
+    }
+
+    @Test
+    void testUnsignedLongUnpack() throws IOException {
+        byte[] packed = {(byte) 0xcf, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff,
+                (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xfe};
+        BigInteger expected = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.valueOf(2));
+
+        assertEquals(expected, msgPackLite.unpack(new ByteArrayInputStream(packed)));
+        assertEquals(expected, msgPackLite.unpack(ByteBuffer.wrap(packed)));
+    }
+
+    @Test
+    void testStringPackIntoDirectBuffer() {
+        for (String value : Arrays.asList("ascii", "ascii, then ü")) {
+            ByteBuffer buffer = msgPackLite.pack(value, ByteBuffer.allocateDirect(4));
+            buffer.flip();
+            assertEquals(true, buffer.isDirect());
+            assertEquals(value, msgPackLite.unpack(buffer));
+        }
+    }
+
+    @Test
+    void testStringCache() {
+        MsgPackLite cached = new MsgPackLite();
+        cached.setStringCache(new StringCache(16, 8));
+        List<String> values = Arrays.asList("status", "ok", "über", "longer than eight");
+        ByteBuffer buffer = cached.pack(values, ByteBuffer.allocate(64));
+        buffer.flip();
+
+        List<?> first = (List<?>) cached.unpack(buffer);
+        buffer.rewind();
+        List<?> second = (List<?>) cached.unpack(buffer);
+        assertEquals(values, first);
+        assertEquals(values, second);
+        assertSame(first.get(0), second.get(0));
+        assertSame(first.get(1), second.get(1));
+        assertNotSame(first.get(2), second.get(2));
+        assertNotSame(first.get(3), second.get(3));
+    }
+
+    @Test
+    void testBufferUnpackKeepsPosition() {
+        ByteBuffer buffer = msgPackLite.pack(Arrays.asList(1, "two"), ByteBuffer.allocate(64));
+        buffer = msgPackLite.pack("three", buffer);
+        buffer.flip();
+
+        assertEquals(Arrays.asList(1, "two"), msgPackLite.unpack(buffer));
+        assertEquals("three", msgPackLite.unpack(buffer));
+        assertEquals(false, buffer.hasRemaining());
+    }
+
+    @Test
+    void testSkip() {
+        Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+        map.put(1, Arrays.asList("a", new byte[] {1}, Collections.nCopies(20, 1.5d)));
+        map.put("b", Collections.singletonMap(2, null));
+
+        List<Object> values = Arrays.<Object>asList(null, true, 1.5f, 2.5d, 1, 200, 70000, 1L << 40, -1, -100, -1000,
+                -100000, Long.MIN_VALUE, "str", new byte[70000], Collections.nCopies(70000, 1), map,
+                new BigDecimal("-12.34"), new BigDecimal("1e-300"), UUID.randomUUID(), new Date(1500));
+        for (Object value : values) {
+            ByteBuffer buffer = msgPackLite.pack(value, ByteBuffer.allocate(16));
+            buffer.flip();
+            msgPackLite.skip(buffer);
+            assertEquals(false, buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    void testRawMsgPackIsCopiedVerbatim() throws IOException {
+        byte[] encoded = bufferPack(Arrays.asList(1, "two"), 16);
+        byte[] padded = new byte[encoded.length + 2];
+        System.arraycopy(encoded, 0, padded, 1, encoded.length);
+        RawMsgPack raw = new RawMsgPack(padded, 1, encoded.length);
+        byte[] expected = bufferPack(Arrays.asList("head", Arrays.asList(1, "two")), 16);
+
+        assertArrayEquals(expected, bufferPack(Arrays.asList("head", raw), 1));
+        assertArrayEquals(expected, streamPack(Arrays.asList("head", raw)));
+    }
+
+    @Test
+    void testExtensions() throws IOException {
+        assertArrayEquals(new byte[] {(byte) 0xd6, 1, 2, 0x01, 0x23, 0x4d}, bufferPack(new BigDecimal("-12.34"), 1));
+        assertArrayEquals(new byte[] {(byte) 0xd5, 1, 0, 0x0c}, bufferPack(BigDecimal.ZERO, 1));
+        assertArrayEquals(new byte[] {(byte) 0xd7, 4, 1, 0, 0, 0, 0, 0, 0, 0}, bufferPack(new Date(1000), 1));
+
+        List<Object> values = Arrays.<Object>asList(new BigDecimal("-12.34"), new BigDecimal("123"), BigDecimal.ZERO,
+                new BigDecimal("12345678901234567890.123456789012345678"), new BigDecimal("1E+5"),
+                UUID.fromString("64d22e4d-ac92-4a23-899a-e59f34af5479"), new Date(-1), new Date(1500000000123L));
+        for (Object value : values) {
+            byte[] packed = bufferPack(value, 1);
+            assertArrayEquals(packed, streamPack(value), String.valueOf(value));
+            assertEquals(value, msgPackLite.unpack(ByteBuffer.wrap(packed)));
+            assertEquals(value, msgPackLite.unpack(new ByteArrayInputStream(packed)));
+        }
+    }
+
+    @Test
+    void testUnknownExtensionIsUnpackedRaw() throws IOException {
+        byte[] packed = {(byte) 0xc7, 3, 42, 1, 2, 3};
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        RawMsgPack raw = (RawMsgPack) msgPackLite.unpack(buffer);
+
+        assertEquals(false, buffer.hasRemaining());
+        assertArrayEquals(packed, raw.toByteArray());
+        assertArrayEquals(packed, ((RawMsgPack) msgPackLite.unpack(new ByteArrayInputStream(packed))).toByteArray());
+    }
+
+    @Test
+    void testRegisteredExtension() {
+        MsgPackLite custom = new MsgPackLite();
+        custom.registerExtension(StringBuilder.class, new MsgPackExtension<StringBuilder>() {
+            @Override
+            public byte getType() {
+                return 42;
+            }
+
+            @Override
+            public byte[] encode(StringBuilder value) {
+                return value.toString().getBytes(MsgPackLite.UTF8);
+            }
+
+            @Override
+            public StringBuilder decode(ByteBuffer payload) {
+                byte[] bytes = new byte[payload.remaining()];
+                payload.get(bytes);
+                return new StringBuilder(new String(bytes, MsgPackLite.UTF8));
+            }
+        });
+        ByteBuffer buffer = custom.pack(Arrays.asList(new StringBuilder("abc"), 1), ByteBuffer.allocate(16));
+        buffer.flip();
+
+        List<?> unpacked = (List<?>) custom.unpack(buffer);
+        assertEquals("abc", unpacked.get(0).toString());
+        assertEquals(1, unpacked.get(1));
+    }
+
+    private byte[] streamPack(Object value) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        msgPackLite.pack(value, bos);
+        return bos.toByteArray();
+    }
+
+    private byte[] bufferPack(Object value, int initialSize) {
+        ByteBuffer buffer = msgPackLite.pack(value, ByteBuffer.allocate(initialSize));
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,35 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PreparedRequestTest {
+    @Test
+    void testPacketMatchesRegularRequest() {
+        PreparedRequest request = new PreparedRequest(null, MsgPackLite.INSTANCE, Code.SELECT, Key.KEY,
+                Key.SPACE, 512, Key.INDEX, 0, Key.ITERATOR, Iterator.EQ.getValue(), Key.LIMIT, 1, Key.OFFSET, 0);
+        List<?> key = Arrays.asList(100500, "key");
+
+        for (long sync : new long[] {1, 1L << 40}) {
+            TarantoolBaseTest.PacketCodec codec = new TarantoolBaseTest.PacketCodec();
+            // smaller than the packet, so that it grows
+            codec.readPacket(codec.frame(request.createPacket(ByteBuffer.allocate(16), sync, key)));
+            Object[] preparedBody = codec.body.clone();
+
+            assertEquals(Code.SELECT.getId(), codec.responseCode);
+            assertEquals(sync, codec.responseSync);
+
+            ByteBuffer packet = codec.createPacket(ByteBuffer.allocate(64), Code.SELECT, sync, null, request.getArgs(key));
+            codec.readPacket(codec.frame(packet));
+
+            assertEquals(sync, codec.responseSync);
+            assertArrayEquals(codec.body, preparedBody);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for operations of {@link TarantoolClientImpl} returning {@link CompletionStage}.
+ */
+public class StageClientOperationsIT extends AbstractTarantoolConnectorIT {
+    private TarantoolClientImpl client;
+
+    @BeforeEach
+    public void setup() {
+        client = (TarantoolClientImpl) makeClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        client.close();
+    }
+
+    @Test
+    public void testComposition() throws ExecutionException, InterruptedException, TimeoutException {
+        final TarantoolClientOps<Integer, List<?>, Object, CompletionStage<List<?>>> ops = client.stageOps();
+
+        List<?> res = ops.insert(SPACE_ID, Arrays.asList(10, "10"))
+                .thenCompose(new Function<List<?>, CompletionStage<List<?>>>() {
+                    @Override
+                    public CompletionStage<List<?>> apply(List<?> inserted) {
+                        return ops.update(SPACE_ID, Collections.singletonList(10), Arrays.asList("=", 1, "ten"));
+                    }
+                })
+                .thenCompose(new Function<List<?>, CompletionStage<List<?>>>() {
+                    @Override
+                    public CompletionStage<List<?>> apply(List<?> updated) {
+                        // continuations do not run in the reader thread
+                        assertFalse(Thread.currentThread().getName().endsWith("reader"));
+                        return ops.select(SPACE_ID, PK_INDEX_ID, Collections.singletonList(10), 0, 1, Iterator.EQ);
+                    }
+                })
+                .toCompletableFuture().get(TIMEOUT, TimeUnit.MILLISECONDS);
+
+        checkTupleResult(res, Arrays.asList(10, "ten"));
+        checkTupleResult(consoleSelect(SPACE_NAME, 10), Arrays.asList(10, "ten"));
+    }
+
+    @Test
+    public void testError() {
+        // Attempt to insert duplicate key.
+        final CompletionStage<List<?>> res = client.stageOps().insert(SPACE_ID, Arrays.asList(1, "one"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, new Executable() {
+            @Override
+            public void execute() throws ExecutionException, InterruptedException, TimeoutException {
+                res.toCompletableFuture().get(TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+        });
+        assertTrue(e.getCause() instanceof TarantoolException);
+    }
+
+    @Test
+    public void testCall() throws ExecutionException, InterruptedException, TimeoutException {
+        CompletionStage<List<?>> res = client.stageOps().call("echo", "hello");
+        assertEquals(Collections.singletonList(Collections.singletonList("hello")),
+                res.toCompletableFuture().get(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+}
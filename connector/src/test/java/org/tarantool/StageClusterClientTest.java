@@ -0,0 +1,184 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link TarantoolClusterClient#stageOps()} against a stub server which drops the first connection
+ * on the first request, answers {@code error} with an error and other evals with their arguments.
+ */
+class StageClusterClientTest {
+    private ServerSocketChannel server;
+    private Thread acceptor;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+    private TarantoolClusterClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = ServerSocketChannel.open();
+        server.socket().bind(new InetSocketAddress("localhost", 0));
+        acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        final SocketChannel channel = server.accept();
+                        final boolean drop = connections.getAndIncrement() == 0;
+                        Thread connection = new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                serve(channel, drop);
+                            }
+                        });
+                        connection.setDaemon(true);
+                        connection.start();
+                    }
+                } catch (IOException ignored) {
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        TarantoolClusterClientConfig config = new TarantoolClusterClientConfig();
+        config.initTimeoutMillis = 5000;
+        config.operationExpiryTimeMillis = 5000;
+        client = new TarantoolClusterClient(config, new SocketChannelProvider() {
+            @Override
+            public SocketChannel get(int retryNumber, Throwable lastError) {
+                try {
+                    return SocketChannel.open(server.socket().getLocalSocketAddress());
+                } catch (IOException e) {
+                    throw new CommunicationException("Cannot connect", e);
+                }
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.close();
+        acceptor.join();
+        assertNull(error.get());
+    }
+
+    @Test
+    void testRetryAfterReconnect() throws Exception {
+        CompletableFuture<List<?>> result = client.stageOps().eval("return ...", "retried").toCompletableFuture();
+
+        assertEquals(Collections.singletonList("retried"), result.get(5, TimeUnit.SECONDS));
+        assertEquals(2, connections.get());
+    }
+
+    @Test
+    void testServerError() throws Exception {
+        assertEquals(Collections.singletonList("first"),
+                client.stageOps().eval("return ...", "first").toCompletableFuture().get(5, TimeUnit.SECONDS));
+
+        final CompletableFuture<List<?>> result = client.stageOps().eval("error").toCompletableFuture();
+        ExecutionException e = assertThrows(ExecutionException.class, new Executable() {
+            @Override
+            public void execute() throws Throwable {
+                result.get(5, TimeUnit.SECONDS);
+            }
+        });
+        assertTrue(e.getCause() instanceof TarantoolException);
+        assertTrue(client.isAlive());
+    }
+
+    private void serve(SocketChannel channel, boolean drop) {
+        try {
+            byte[] greeting = new byte[128];
+            Arrays.fill(greeting, (byte) ' ');
+            byte[] version = "Tarantool 2.1.0 (Binary) stub".getBytes("US-ASCII");
+            System.arraycopy(version, 0, greeting, 0, version.length);
+            greeting[63] = '\n';
+            greeting[127] = '\n';
+            writeFully(channel, ByteBuffer.wrap(greeting));
+
+            MsgPackLite msgPackLite = MsgPackLite.INSTANCE;
+            ByteBuffer size = ByteBuffer.allocate(5);
+            while (true) {
+                size.clear();
+                readFully(channel, size);
+                size.flip();
+                ByteBuffer frame = ByteBuffer.allocate(size.getInt(1));
+                readFully(channel, frame);
+                frame.flip();
+                if (drop) {
+                    return;
+                }
+                Map<?, ?> header = (Map<?, ?>) msgPackLite.unpack(frame);
+                Map<?, ?> body = (Map<?, ?>) msgPackLite.unpack(frame);
+
+                Map<Object, Object> responseBody = new HashMap<Object, Object>();
+                long code = 0;
+                if ("error".equals(body.get(Key.EXPRESSION.getId()))) {
+                    code = 0x8000 | 32;
+                    responseBody.put(Key.ERROR.getId(), "boom");
+                } else {
+                    responseBody.put(Key.DATA.getId(), body.get(Key.TUPLE.getId()));
+                }
+                ByteBuffer response = ByteBuffer.allocate(frame.capacity() + 64);
+                response.position(5);
+                msgPackLite.packMapHeader(2, response);
+                msgPackLite.pack(Key.CODE, response);
+                msgPackLite.packLong(code, response);
+                msgPackLite.pack(Key.SYNC, response);
+                msgPackLite.pack(header.get(Key.SYNC.getId()), response);
+                response = msgPackLite.pack(responseBody, response);
+                response.put(0, (byte) 0xce);
+                response.putInt(1, response.position() - 5);
+                response.flip();
+                writeFully(channel, response);
+            }
+        } catch (IOException ignored) {
+        } catch (Throwable e) {
+            error.set(e);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Closed");
+            }
+        }
+    }
+
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StageCompletionTest {
+    @Test
+    void testContinuationsRunInExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, "completion");
+            }
+        });
+        try {
+            FutureImpl<Object> future = new FutureImpl<Object>(1, Code.PING);
+            TarantoolClientImpl.StageCompletion<Object> completion =
+                    new TarantoolClientImpl.StageCompletion<Object>(future, executor);
+            future.setOnComplete(completion);
+            CompletableFuture<String> thread = completion.stage.thenApply(new Function<Object, String>() {
+                @Override
+                public String apply(Object value) {
+                    return value + " in " + Thread.currentThread().getName();
+                }
+            }).toCompletableFuture();
+
+            future.setValue("done");
+            assertEquals("done in completion", thread.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testErrorCompletesExceptionally() throws Exception {
+        FutureImpl<Object> future = new FutureImpl<Object>(1, Code.PING);
+        final TarantoolClientImpl.StageCompletion<Object> completion =
+                new TarantoolClientImpl.StageCompletion<Object>(future, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        command.run();
+                    }
+                });
+        future.setOnComplete(completion);
+        Exception error = new Exception("error");
+
+        future.setError(error);
+        ExecutionException e = assertThrows(ExecutionException.class, new Executable() {
+            @Override
+            public void execute() throws Throwable {
+                completion.stage.get();
+            }
+        });
+        assertSame(error, e.getCause());
+    }
+
+    @Test
+    void testRejectedCompletionRunsInPlace() throws Exception {
+        FutureImpl<Object> future = new FutureImpl<Object>(1, Code.PING);
+        TarantoolClientImpl.StageCompletion<Object> completion =
+                new TarantoolClientImpl.StageCompletion<Object>(future, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        throw new RejectedExecutionException();
+                    }
+                });
+        future.setOnComplete(completion);
+        assertFalse(completion.stage.isDone());
+
+        future.setValue("done");
+        assertTrue(completion.stage.isDone());
+        assertEquals("done", completion.stage.get());
+    }
+}
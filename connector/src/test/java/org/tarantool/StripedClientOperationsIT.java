@@ -0,0 +1,31 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.List;
+
+/**
+ * Tests for synchronous operations of {@link TarantoolStripedClient} class.
+ *
+ * Actual tests reside in base class.
+ */
+public class StripedClientOperationsIT extends AbstractTarantoolOpsIT {
+    private TarantoolClient client;
+
+    @BeforeEach
+    public void setup() {
+        client = new TarantoolStripedClient(socketChannelProvider, makeClientConfig(), 3,
+                TarantoolStripedClient.Balancing.KEY_AFFINITY);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        client.close();
+    }
+
+    @Override
+    protected TarantoolClientOps<Integer, List<?>, Object, List<?>> getOps() {
+        return client.syncOps();
+    }
+}
@@ -0,0 +1,164 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TarantoolBaseTest {
+    static class PacketCodec extends TarantoolBase<List<?>> {
+        @Override
+        protected List<?> exec(Code code, Object... args) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        ByteBuffer frame(ByteBuffer packet) {
+            assertEquals((byte) 0xce, packet.get());
+            assertEquals(packet.remaining() - 4, packet.getInt());
+            return packet.slice();
+        }
+    }
+
+    @Test
+    void testPacketRoundTrip() throws Exception {
+        PacketCodec codec = new PacketCodec();
+        ByteBuffer packet = codec.createPacket(Code.SELECT, 42L, 7L,
+                Key.SPACE, 512, Key.KEY, Arrays.asList(1, "a"), Key.ITERATOR, Iterator.GE.getValue());
+
+        codec.readPacket(codec.frame(packet));
+
+        assertEquals(Code.SELECT.getId(), codec.responseCode);
+        assertEquals(42L, codec.responseSync);
+        assertEquals(7L, codec.responseSchemaId);
+        assertEquals(512, codec.body[Key.SPACE.getId()]);
+        assertEquals(Arrays.asList(1, "a"), codec.body[Key.KEY.getId()]);
+        assertEquals(Iterator.GE.getValue(), codec.body[Key.ITERATOR.getId()]);
+        assertNull(codec.body[Key.DATA.getId()]);
+    }
+
+    @Test
+    void testRawDataDecoder() throws Exception {
+        PacketCodec codec = new PacketCodec();
+        List<?> data = Arrays.asList(Arrays.asList(1, "one"), Arrays.asList(2, "two"));
+        ByteBuffer packet = codec.createPacket(Code.SELECT, 1L, null, Key.DATA, data, Key.ERROR, "error");
+        ByteBuffer frame = codec.frame(packet);
+
+        codec.readHeader(frame);
+        codec.readBody(frame, RawMsgPack.DECODER);
+
+        RawMsgPack raw = (RawMsgPack) codec.body[Key.DATA.getId()];
+        assertEquals(data, MsgPackLite.INSTANCE.unpack(raw.toByteBuffer()));
+        assertEquals("error", codec.body[Key.ERROR.getId()]);
+    }
+
+    @Test
+    void testOnlyFramesKeptByDecodedDataAreCopied() {
+        PacketCodec codec = new PacketCodec();
+        DataDecoder<Object> decoding = new DataDecoder<Object>() {
+            @Override
+            public Object decode(MsgPackLite msgPackLite, ByteBuffer frame) {
+                return msgPackLite.unpack(frame);
+            }
+
+            @Override
+            public boolean keepsFrame() {
+                return false;
+            }
+        };
+        assertFalse(codec.keepsFrame(null));
+        assertFalse(codec.keepsFrame(decoding));
+        assertTrue(codec.keepsFrame(RawMsgPack.DECODER));
+
+        codec.binaryViews = true;
+        assertTrue(codec.keepsFrame(null));
+        // the decoder takes the place of binary views
+        assertFalse(codec.keepsFrame(decoding));
+    }
+
+    @Test
+    void testUnknownBodyKeysAreSkipped() {
+        PacketCodec codec = new PacketCodec();
+        MsgPackLite msgPackLite = MsgPackLite.INSTANCE;
+        ByteBuffer frame = msgPackLite.packMapHeader(2, ByteBuffer.allocate(64));
+        frame = msgPackLite.pack(Key.CODE, frame);
+        frame = msgPackLite.packLong(0x8000 | 10, frame);
+        frame = msgPackLite.pack(Key.SYNC, frame);
+        frame = msgPackLite.packLong(Long.MAX_VALUE, frame);
+        frame = msgPackLite.packMapHeader(2, frame);
+        frame = msgPackLite.packLong(0x52, frame);
+        frame = msgPackLite.pack(Collections.singletonMap(0, "extended error"), frame);
+        frame = msgPackLite.pack(Key.ERROR, frame);
+        frame = msgPackLite.pack("error", frame);
+        frame.flip();
+
+        codec.readPacket(frame);
+
+        assertEquals(0x8000 | 10, codec.responseCode);
+        assertEquals(Long.MAX_VALUE, codec.responseSync);
+        assertEquals(0, codec.responseSchemaId);
+        assertEquals("error", codec.body[Key.ERROR.getId()]);
+        assertTrue(!frame.hasRemaining());
+    }
+
+    @Test
+    void testBinaryViewsOverPooledFrame() throws Exception {
+        PacketCodec codec = new PacketCodec();
+        codec.binaryViews = true;
+        codec.framePool = new FramePool(1, 4096);
+        ByteBuffer packet = codec.createPacket(Code.SELECT, 1L, null,
+                Key.DATA, Arrays.asList(Arrays.asList(1, new byte[] {1, 2, 3})));
+        byte[] bytes = new byte[packet.remaining()];
+        packet.get(bytes);
+
+        codec.cis = new CountInputStreamImpl(new ByteArrayInputStream(bytes));
+        ByteBuffer frame = codec.copyFrame(codec.readFrame());
+        codec.readPacket(frame);
+
+        FrameList data = (FrameList) codec.body[Key.DATA.getId()];
+        ByteBuffer view = (ByteBuffer) ((List<?>) data.get(0)).get(1);
+        assertTrue(view.isReadOnly());
+        byte[] viewed = new byte[view.remaining()];
+        view.get(viewed);
+        assertArrayEquals(new byte[] {1, 2, 3}, viewed);
+
+        data.release();
+        data.release();
+        assertSame(frame.array(), codec.framePool.acquire(frame.remaining()));
+        assertTrue(frame.array() != codec.framePool.acquire(frame.remaining()));
+    }
+
+    @Test
+    void testPacketsAppendedBackToBack() throws Exception {
+        PacketCodec codec = new PacketCodec();
+        ByteBuffer buffer = codec.appendPacket(ByteBuffer.allocate(8), Code.PING, 1L, null);
+        buffer = codec.appendPacket(buffer, Code.SELECT, 2L, null, Key.SPACE, 512, Key.KEY, Arrays.asList(1, "a"));
+        buffer.flip();
+
+        for (long sync = 1; sync <= 2; sync++) {
+            assertEquals((byte) 0xce, buffer.get());
+            int size = buffer.getInt();
+            ByteBuffer frame = buffer.slice();
+            frame.limit(size);
+            buffer.position(buffer.position() + size);
+            codec.readPacket(frame);
+            assertEquals(sync, codec.responseSync);
+        }
+        assertTrue(!buffer.hasRemaining());
+        assertEquals(Code.SELECT.getId(), codec.responseCode);
+        assertEquals(Arrays.asList(1, "a"), codec.body[Key.KEY.getId()]);
+    }
+}
@@ -0,0 +1,63 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings("unchecked")
+class TarantoolPipelineTest {
+    @Test
+    void testAggregateCompletesAfterAllOperations() throws Exception {
+        List<FutureImpl<?>> ops = new ArrayList<FutureImpl<?>>();
+        TarantoolPipeline.AggregateFuture aggregate = aggregate(ops, 3);
+
+        ((FutureImpl<Object>) ops.get(2)).setValue("c");
+        ((FutureImpl<Object>) ops.get(0)).setValue("a");
+        assertFalse(aggregate.isDone());
+        ((FutureImpl<Object>) ops.get(1)).setValue("b");
+        ((FutureImpl<Object>) ops.get(1)).setValue("again");
+
+        assertTrue(aggregate.isDone());
+        assertEquals(Arrays.asList("a", "b", "c"), aggregate.get());
+    }
+
+    @Test
+    void testAggregateFailsWithFirstError() throws Exception {
+        List<FutureImpl<?>> ops = new ArrayList<FutureImpl<?>>();
+        final TarantoolPipeline.AggregateFuture aggregate = aggregate(ops, 3);
+        Exception first = new Exception("first");
+
+        ops.get(2).setError(new Exception("last"));
+        ops.get(1).setError(first);
+        ((FutureImpl<Object>) ops.get(0)).setValue("a");
+
+        ExecutionException e = assertThrows(ExecutionException.class, new Executable() {
+            @Override
+            public void execute() throws Throwable {
+                aggregate.get();
+            }
+        });
+        assertSame(first, e.getCause());
+    }
+
+    private TarantoolPipeline.AggregateFuture aggregate(List<FutureImpl<?>> ops, int size) {
+        TarantoolPipeline.AggregateFuture aggregate = new TarantoolPipeline.AggregateFuture(ops);
+        for (int i = 0; i < size; i++) {
+            FutureImpl<?> op = new FutureImpl<Object>(i, Code.PING);
+            op.setOnComplete(aggregate);
+            ops.add(op);
+        }
+        aggregate.remaining.set(size);
+        return aggregate;
+    }
+}
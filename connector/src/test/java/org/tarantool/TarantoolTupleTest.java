@@ -0,0 +1,61 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TarantoolTupleTest {
+    private final MsgPackLite msgPackLite = MsgPackLite.INSTANCE;
+
+    @Test
+    void testFieldAccess() {
+        List<?> fields = Arrays.asList(1L << 40, "name", new byte[] {1, 2}, null,
+                Collections.singletonMap("k", Arrays.asList(1, 2)), -5, 3.5d);
+        ByteBuffer buffer = msgPackLite.pack(fields, ByteBuffer.allocate(64));
+        buffer = msgPackLite.pack("next", buffer);
+        buffer.flip();
+
+        final TarantoolTuple tuple = new TarantoolTuple(msgPackLite, buffer);
+
+        assertEquals("next", msgPackLite.unpack(buffer));
+        assertEquals(fields.size(), tuple.size());
+        assertEquals(3.5d, tuple.get(6));
+        assertEquals(-5L, tuple.getLong(5));
+        assertEquals(1L << 40, tuple.getLong(0));
+        assertEquals("name", tuple.getString(1));
+        assertArrayEquals(new byte[] {1, 2}, tuple.getBytes(2));
+        assertArrayEquals("name".getBytes(), tuple.getBytes(1));
+        assertNull(tuple.get(3));
+        assertNull(tuple.getString(3));
+        assertEquals(fields.get(4), tuple.get(4));
+        assertThrows(IllegalArgumentException.class, new Executable() {
+            @Override
+            public void execute() {
+                tuple.getLong(1);
+            }
+        });
+        assertThrows(IndexOutOfBoundsException.class, new Executable() {
+            @Override
+            public void execute() {
+                tuple.get(7);
+            }
+        });
+    }
+
+    @Test
+    void testTupleIsList() {
+        ByteBuffer buffer = msgPackLite.pack(Arrays.asList(1, "two", 3), ByteBuffer.allocate(64));
+        buffer.flip();
+
+        assertEquals(Arrays.asList(1, "two", 3), new TarantoolTuple(msgPackLite, buffer));
+    }
+}
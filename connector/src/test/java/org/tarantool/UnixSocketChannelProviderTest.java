@@ -0,0 +1,170 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tarantool.jdbc.SQLDriver;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Connects every kind of client to a stub server listening on a socket file,
+ * which answers every request with an empty body. Skipped before Java 16.
+ */
+class UnixSocketChannelProviderTest {
+    private File socketFile;
+    private ServerSocketChannel server;
+    private Thread acceptor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        assumeTrue(UnixSocketChannelProvider.isSupported(), "Unix domain sockets require Java 16 or newer");
+        socketFile = File.createTempFile("tarantool", ".sock");
+        socketFile.delete();
+        // the channel is opened reflectively as the tests are compiled for older versions
+        ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+        server = (ServerSocketChannel) ServerSocketChannel.class.getMethod("open", ProtocolFamily.class)
+                .invoke(null, unix);
+        server.bind((SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                .getMethod("of", String.class).invoke(null, socketFile.getPath()));
+        acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (server.isOpen()) {
+                    final SocketChannel channel;
+                    try {
+                        channel = server.accept();
+                    } catch (IOException e) {
+                        return;
+                    }
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            serve(channel);
+                        }
+                    });
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (server != null) {
+            server.close();
+            acceptor.join();
+        }
+        if (socketFile != null) {
+            socketFile.delete();
+        }
+    }
+
+    @Test
+    void testClient() {
+        TarantoolClientConfig config = new TarantoolClientConfig();
+        config.initTimeoutMillis = 5000;
+        TarantoolClientImpl client = new TarantoolClientImpl(new UnixSocketChannelProvider(socketFile.getPath()), config);
+        try {
+            client.syncOps().ping();
+            client.asyncOps().ping();
+            client.syncOps().ping();
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    void testConnection() throws IOException {
+        TarantoolConnection connection = new TarantoolConnection(null, null,
+                UnixSocketChannelProvider.open(socketFile.getPath()));
+        connection.ping();
+        connection.ping();
+        assertFalse(connection.isClosed());
+        connection.close();
+        assertTrue(connection.isClosed());
+    }
+
+    @Test
+    void testJdbc() throws Exception {
+        Connection connection = new SQLDriver().connect("tarantool://localhost?unixSocket=" + socketFile.getPath(), null);
+        assertFalse(connection.isClosed());
+        connection.close();
+        assertTrue(connection.isClosed());
+    }
+
+    private static void serve(SocketChannel channel) {
+        try {
+            byte[] greeting = new byte[128];
+            Arrays.fill(greeting, (byte) ' ');
+            byte[] version = "Tarantool 2.1.0 (Binary) stub".getBytes("US-ASCII");
+            System.arraycopy(version, 0, greeting, 0, version.length);
+            greeting[63] = '\n';
+            greeting[127] = '\n';
+            writeFully(channel, ByteBuffer.wrap(greeting));
+
+            MsgPackLite msgPackLite = MsgPackLite.INSTANCE;
+            ByteBuffer size = ByteBuffer.allocate(5);
+            ByteBuffer response = ByteBuffer.allocate(64);
+            while (true) {
+                size.clear();
+                readFully(channel, size);
+                size.flip();
+                ByteBuffer frame = ByteBuffer.allocate(((Number) msgPackLite.unpack(size)).intValue());
+                readFully(channel, frame);
+                frame.flip();
+                Map<?, ?> header = (Map<?, ?>) msgPackLite.unpack(frame);
+
+                response.clear();
+                response.position(5);
+                msgPackLite.packMapHeader(2, response);
+                msgPackLite.pack(Key.CODE, response);
+                msgPackLite.packLong(0, response);
+                msgPackLite.pack(Key.SYNC, response);
+                msgPackLite.pack(header.get(Key.SYNC.getId()), response);
+                msgPackLite.packMapHeader(0, response);
+                response.put(0, (byte) 0xce);
+                response.putInt(1, response.position() - 5);
+                response.flip();
+                writeFully(channel, response);
+            }
+        } catch (IOException ignored) {
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Closed");
+            }
+        }
+    }
+
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
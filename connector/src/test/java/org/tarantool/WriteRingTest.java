@@ -0,0 +1,237 @@
+package org.tarantool;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteRingTest {
+    static final int PRODUCERS = 8;
+    static final int PACKETS = 5000;
+
+    @Test
+    void testOfferWrapsAround() {
+        WriteRing ring = new WriteRing(10);
+        assertTrue(ring.offer(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6})));
+        assertFalse(ring.offer(ByteBuffer.wrap(new byte[] {7, 8, 9, 10, 11})));
+        ring.consume(ring.peek().remaining());
+        assertTrue(ring.isEmpty());
+
+        assertTrue(ring.offer(ByteBuffer.wrap(new byte[] {7, 8, 9, 10, 11})));
+        ByteBuffer region = ring.peek();
+        assertEquals(4, region.remaining());
+        assertEquals(7, region.get());
+        ring.consume(4);
+        region = ring.peek();
+        assertEquals(1, region.remaining());
+        assertEquals(11, region.get());
+        ring.consume(1);
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void testGrowsOnceFoundFullAndEmpty() {
+        WriteRing ring = new WriteRing(4, 10, false);
+        assertFalse(ring.grow());
+        assertTrue(ring.offer(ByteBuffer.wrap(new byte[] {1, 2, 3})));
+        // larger than the capacity but not than the maximum one
+        assertFalse(ring.offer(ByteBuffer.wrap(new byte[] {4, 5, 6, 7, 8, 9})));
+        assertFalse(ring.grow());
+        ring.consume(ring.peek().remaining());
+
+        assertTrue(ring.grow());
+        assertEquals(8, ring.capacity());
+        assertFalse(ring.grow());
+        assertTrue(ring.offer(ByteBuffer.wrap(new byte[] {4, 5, 6, 7, 8, 9})));
+        ByteBuffer region = ring.peek();
+        assertEquals(5, region.remaining());
+        assertEquals(4, region.get());
+        ring.consume(5);
+        assertEquals(9, ring.peek().get());
+        ring.consume(1);
+
+        assertFalse(ring.offer(ByteBuffer.wrap(new byte[9])));
+        assertTrue(ring.grow());
+        assertEquals(10, ring.capacity());
+        assertTrue(ring.offer(ByteBuffer.wrap(new byte[9])));
+    }
+
+    @Test
+    void testConcurrentProducersPublishWholePackets() throws Exception {
+        produceAndConsume(new WriteRing(1000));
+    }
+
+    @Test
+    void testConcurrentProducersWhileRingGrows() throws Exception {
+        WriteRing ring = new WriteRing(64, 1000, false);
+        produceAndConsume(ring);
+        assertEquals(1000, ring.capacity());
+    }
+
+    private void produceAndConsume(final WriteRing ring) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            final byte producer = (byte) p;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < PACKETS; i++) {
+                            int length = 6 + i % 50;
+                            ByteBuffer packet = ByteBuffer.allocate(length);
+                            packet.put((byte) length).put(producer).putInt(i);
+                            while (packet.hasRemaining()) {
+                                packet.put(producer);
+                            }
+                            packet.flip();
+                            while (!ring.offer(packet)) {
+                                Thread.yield();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        start.countDown();
+
+        int[] expected = new int[PRODUCERS];
+        ByteBuffer received = ByteBuffer.allocate(64);
+        for (int packets = 0; packets < PRODUCERS * PACKETS; ) {
+            ByteBuffer region = ring.peek();
+            int length = region.remaining();
+            if (length == 0) {
+                ring.grow();
+                Thread.yield();
+            }
+            while (region.hasRemaining()) {
+                received.put(region.get());
+                if (received.position() == (received.get(0) & 0xff)) {
+                    received.flip();
+                    received.get();
+                    byte producer = received.get();
+                    assertEquals(expected[producer]++, received.getInt());
+                    while (received.hasRemaining()) {
+                        assertEquals(producer, received.get());
+                    }
+                    received.clear();
+                    packets++;
+                }
+            }
+            ring.consume(length);
+        }
+        assertTrue(ring.isEmpty());
+        assertNull(error.get());
+    }
+
+    @Test
+    void testStalledProducerDoesNotHoldUpLaterOnes() throws Exception {
+        final CountDownLatch copying = new CountDownLatch(1);
+        final CountDownLatch resume = new CountDownLatch(1);
+        final WriteRing ring = new WriteRing(100) {
+            @Override
+            protected void copy(long position, ByteBuffer packet) {
+                if (position == 0) {
+                    copying.countDown();
+                    try {
+                        resume.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.copy(position, packet);
+            }
+        };
+        Thread stalled = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ring.offer(ByteBuffer.wrap(new byte[] {1, 1}));
+            }
+        });
+        stalled.start();
+        copying.await();
+
+        // returns right away although the packet claimed before it is not copied yet
+        assertTrue(ring.offer(ByteBuffer.wrap(new byte[] {2, 2, 2})));
+        assertTrue(ring.offer(ByteBuffer.wrap(new byte[] {3})));
+        assertTrue(ring.isEmpty());
+
+        resume.countDown();
+        stalled.join();
+        assertEquals(6, ring.size());
+        ByteBuffer region = ring.peek();
+        byte[] bytes = new byte[region.remaining()];
+        region.get(bytes);
+        assertArrayEquals(new byte[] {1, 1, 2, 2, 2, 3}, bytes);
+    }
+
+    @Test
+    void testProducersParkWhileTableIsFull() throws Exception {
+        final CountDownLatch copying = new CountDownLatch(1);
+        final CountDownLatch resume = new CountDownLatch(1);
+        final WriteRing ring = new WriteRing(10000) {
+            @Override
+            protected void copy(long position, ByteBuffer packet) {
+                if (position == 0) {
+                    copying.countDown();
+                    try {
+                        resume.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.copy(position, packet);
+            }
+        };
+        List<Thread> producers = new ArrayList<Thread>();
+        producers.add(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ring.offer(ByteBuffer.wrap(new byte[] {1, 1}));
+            }
+        }));
+        producers.get(0).start();
+        copying.await();
+
+        // every producer has more packets than the table of completions holds
+        for (int p = 0; p < PRODUCERS; p++) {
+            Thread producer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i <= WriteRing.COMPLETION_SLOTS; i++) {
+                        ring.offer(ByteBuffer.wrap(new byte[] {2, 2}));
+                    }
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ring.waiters.size() < PRODUCERS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(PRODUCERS, ring.waiters.size());
+        assertTrue(ring.isEmpty());
+
+        resume.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertTrue(ring.waiters.isEmpty());
+        assertEquals(2 + PRODUCERS * (WriteRing.COMPLETION_SLOTS + 1) * 2, ring.size());
+    }
+}
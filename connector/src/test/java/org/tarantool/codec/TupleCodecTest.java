@@ -0,0 +1,122 @@
+package org.tarantool.codec;
+
+import org.junit.jupiter.api.Test;
+import org.tarantool.MsgPackLite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TupleCodecTest {
+    private final MsgPackLite msgPackLite = MsgPackLite.INSTANCE;
+
+    @Tuple
+    static class User {
+        @Field(0)
+        long id;
+        @Field(1)
+        private String name;
+        @Field(3)
+        Integer age;
+        @Field(4)
+        double score;
+        @Field(5)
+        byte[] avatar;
+        @Field(6)
+        BigDecimal balance;
+        @Field(7)
+        List<String> tags;
+        String transientValue;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @Test
+    void testEncodeMatchesList() {
+        User user = new User();
+        user.id = 1000;
+        user.setName("name");
+        user.age = 30;
+        user.score = 1.5;
+        user.avatar = new byte[] {1, 2};
+        user.balance = new BigDecimal("-12.34");
+        user.tags = Arrays.asList("a", "b");
+        user.transientValue = "ignored";
+
+        List<?> tuple = Arrays.asList(1000L, "name", null, 30, 1.5, new byte[] {1, 2}, new BigDecimal("-12.34"),
+                Arrays.asList("a", "b"));
+        assertArrayEquals(toBytes(msgPackLite.pack(tuple, ByteBuffer.allocate(16))),
+                toBytes(new TupleCodecTest_UserCodec().encode(msgPackLite, user, ByteBuffer.allocate(16))));
+    }
+
+    @Test
+    void testDecode() {
+        List<?> tuple = Arrays.asList(1000L, "name", "skipped", null, 2, new byte[] {1, 2}, new BigDecimal("1.5"),
+                Arrays.asList("a"), "extra", Arrays.asList(1, 2));
+        ByteBuffer buffer = msgPackLite.pack(tuple, ByteBuffer.allocate(16));
+        buffer = msgPackLite.pack("next", buffer);
+        buffer.flip();
+
+        User user = new TupleCodecTest_UserCodec().decode(msgPackLite, buffer);
+        assertEquals(1000L, user.id);
+        assertEquals("name", user.getName());
+        assertNull(user.age);
+        assertEquals(2.0, user.score);
+        assertArrayEquals(new byte[] {1, 2}, user.avatar);
+        assertEquals(new BigDecimal("1.5"), user.balance);
+        assertEquals(Arrays.asList("a"), user.tags);
+        assertEquals("next", msgPackLite.unpack(buffer));
+    }
+
+    @Test
+    void testDecodeShortTuple() {
+        ByteBuffer buffer = msgPackLite.pack(Arrays.asList(7), ByteBuffer.allocate(16));
+        buffer.flip();
+
+        User user = new TupleCodecTest_UserCodec().decode(msgPackLite, buffer);
+        assertEquals(7L, user.id);
+        assertNull(user.getName());
+        assertEquals(false, buffer.hasRemaining());
+    }
+
+    @Test
+    void testArgumentPacksInPlace() throws IOException {
+        User user = new User();
+        user.id = 5;
+        user.setName("five");
+        CodecArgument<User> argument = new CodecArgument<User>(new TupleCodecTest_UserCodec(), user);
+        byte[] expected = toBytes(new TupleCodecTest_UserCodec().encode(msgPackLite, user, ByteBuffer.allocate(16)));
+
+        ByteBuffer buffer = msgPackLite.pack(Arrays.asList(1, argument), ByteBuffer.allocate(4));
+        buffer.flip();
+        assertEquals(2, msgPackLite.unpackArrayHeader(buffer));
+        assertEquals(1L, msgPackLite.unpackLong(buffer));
+        byte[] packed = new byte[buffer.remaining()];
+        buffer.get(packed);
+        assertArrayEquals(expected, packed);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        msgPackLite.pack(argument, out);
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    private byte[] toBytes(ByteBuffer buffer) {
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -28,6 +28,7 @@ import static org.tarantool.jdbc.SQLDriver.PROP_PASSWORD;
 import static org.tarantool.jdbc.SQLDriver.PROP_PORT;
 import static org.tarantool.jdbc.SQLDriver.PROP_SOCKET_PROVIDER;
 import static org.tarantool.jdbc.SQLDriver.PROP_SOCKET_TIMEOUT;
+import static org.tarantool.jdbc.SQLDriver.PROP_UNIX_SOCKET;
 import static org.tarantool.jdbc.SQLDriver.PROP_USER;
 
 public class JdbcDriverTest {
@@ -94,7 +95,7 @@ public class JdbcDriverTest {
         Properties props = new Properties();
         DriverPropertyInfo[] info = drv.getPropertyInfo("tarantool://server.local:3302", props);
         assertNotNull(info);
-        assertEquals(6, info.length);
+        assertEquals(7, info.length);
 
         for (DriverPropertyInfo e: info) {
             assertNotNull(e.name);
@@ -119,6 +120,9 @@ public class JdbcDriverTest {
             } else if (PROP_SOCKET_TIMEOUT.equals(e.name)) {
                 assertFalse(e.required);
                 assertEquals("0", e.value);
+            } else if (PROP_UNIX_SOCKET.equals(e.name)) {
+                assertFalse(e.required);
+                assertNull(e.value);
             } else
                 fail("Unknown property '" + e.name + "'");
         }
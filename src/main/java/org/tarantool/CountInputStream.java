@@ -1,7 +0,0 @@
-package org.tarantool;
-
-import java.io.InputStream;
-
-public abstract class CountInputStream extends InputStream {
-    abstract long getBytesRead();
-}